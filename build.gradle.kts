@@ -166,6 +166,34 @@ sourceSets {
         java.srcDirs(project.files(file("gen")))
         resources.exclude("META-INF/description.html")
     }
+    // JMH benchmarks for the rendering pipeline, run them with './gradlew benchmark'
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.test.get().output + configurations.testCompileClasspath.get()
+        runtimeClasspath += sourceSets.main.get().output + sourceSets.test.get().output + configurations.testRuntimeClasspath.get()
+    }
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+intellijPlatformTesting {
+    testIde {
+        register("benchmark") {
+            task {
+                description = "Runs the JMH benchmarks in src/jmh. Select benchmarks with -Pjmh.include=<regex>."
+                group = "verification"
+                testClassesDirs = sourceSets["jmh"].output.classesDirs
+                classpath += sourceSets["jmh"].runtimeClasspath
+                // the benchmarks need the IDE's test environment, therefore JMH runs within this test task
+                filter.includeTestsMatching("org.asciidoc.intellij.benchmark.AsciiDocBenchmarkRunner")
+                systemProperty("jmh.include", providers.gradleProperty("jmh.include").getOrElse(".*"))
+                systemProperty("jmh.result", layout.buildDirectory.file("reports/jmh/results.json").get().asFile.absolutePath)
+                outputs.upToDateWhen { false }
+            }
+        }
+    }
 }
 
 tasks {
@@ -215,6 +243,11 @@ tasks {
         dependsOn (instrumentTestCode)
     }
 
+    named<JavaCompile>("compileJmhJava") {
+        // the code generated by JMH doesn't follow the rules enforced for the plugin's code
+        options.errorprone.isEnabled = false
+    }
+
     patchPluginXml {
         dependsOn (asciidoctor)
         sinceBuild = "253.25908"
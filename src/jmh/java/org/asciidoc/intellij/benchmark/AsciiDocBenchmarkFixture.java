@@ -0,0 +1,116 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Test environment and generated documents shared by all benchmarks.
+ */
+public final class AsciiDocBenchmarkFixture {
+
+  /**
+   * Kinds of content in the generated documents.
+   */
+  public enum Variant {
+    /**
+     * Only sections, paragraphs, lists, tables and source blocks.
+     */
+    PLAIN,
+    /**
+     * Same as {@link #PLAIN}, but split into several files that are included in the main document.
+     */
+    INCLUDES,
+    /**
+     * Same as {@link #PLAIN}, plus a PlantUML diagram in each section.
+     */
+    DIAGRAMS
+  }
+
+  /**
+   * Number of lines of each section in the generated documents, also the size of each included file.
+   */
+  private static final int SECTION_LINES = 50;
+
+  private static volatile CodeInsightTestFixture fixture;
+
+  private AsciiDocBenchmarkFixture() {
+  }
+
+  static void set(CodeInsightTestFixture fixture) {
+    AsciiDocBenchmarkFixture.fixture = fixture;
+  }
+
+  public static @NotNull CodeInsightTestFixture getFixture() {
+    CodeInsightTestFixture result = fixture;
+    if (result == null) {
+      throw new IllegalStateException("benchmarks need to be started via AsciiDocBenchmarkRunner");
+    }
+    return result;
+  }
+
+  public static @NotNull Project getProject() {
+    return getFixture().getProject();
+  }
+
+  /**
+   * Generate a document with approximately the given number of lines in the folder.
+   * Included files are written to the same folder.
+   *
+   * @return the content of the main document
+   */
+  public static @NotNull String generate(@NotNull Path dir, int lines, @NotNull Variant variant) throws IOException {
+    StringBuilder main = new StringBuilder("= Benchmark Document\n:toc:\n\nPreamble with *bold* and _italic_ text.\n\n");
+    for (int section = 0; section * SECTION_LINES < lines; ++section) {
+      String content = section(section, variant);
+      if (variant == Variant.INCLUDES) {
+        String name = "section-" + section + ".adoc";
+        Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+        main.append("include::").append(name).append("[]\n\n");
+      } else {
+        main.append(content);
+      }
+    }
+    return main.toString();
+  }
+
+  /**
+   * A section with {@link #SECTION_LINES} lines.
+   */
+  private static String section(int section, Variant variant) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("== Section ").append(section).append("\n\n");
+    sb.append("A paragraph with a https://asciidoctor.org[link], `mono` text and a reference to <<_section_0>>.\n\n");
+    sb.append("* item one\n* item two\n** nested item\n\n");
+    sb.append("[source,java]\n----\npublic class Sample").append(section).append(" {\n  int value = ").append(section).append(";\n}\n----\n\n");
+    sb.append("|===\n|Column 1 |Column 2\n\n|Cell ").append(section).append("\n|Cell\n|===\n\n");
+    if (variant == Variant.DIAGRAMS) {
+      sb.append("[plantuml]\n----\nAlice -> Bob: hello ").append(section).append("\n----\n\n");
+    }
+    sb.append("NOTE: An admonition.\n\n");
+    int written = (int) sb.chars().filter(c -> c == '\n').count();
+    for (int i = written; i < SECTION_LINES; i += 2) {
+      sb.append("Line ").append(i).append(" with some more text to fill the section.\n\n");
+    }
+    return sb.toString();
+  }
+
+  public static void delete(Path dir) throws IOException {
+    if (dir == null || !Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+}
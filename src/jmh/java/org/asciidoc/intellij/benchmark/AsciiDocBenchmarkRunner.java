@@ -0,0 +1,38 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks within the IDE's test environment, as the code under test needs a project and the IDE's services.
+ * JMH can't fork the JVM in this setup, therefore all benchmarks run in this JVM one after another.
+ * Started via the Gradle task <code>benchmark</code>.
+ */
+public class AsciiDocBenchmarkRunner extends BasePlatformTestCase {
+
+  @Override
+  protected boolean runInDispatchThread() {
+    // the benchmarks run in JMH's threads, and some of them need the dispatch thread to be available
+    return false;
+  }
+
+  public void testRunBenchmarks() throws RunnerException {
+    AsciiDocBenchmarkFixture.set(myFixture);
+    try {
+      Options options = new OptionsBuilder()
+        .include(System.getProperty("jmh.include", ".*"))
+        .forks(0)
+        .resultFormat(ResultFormatType.JSON)
+        .result(System.getProperty("jmh.result", "jmh-results.json"))
+        .build();
+      new Runner(options).run();
+    } finally {
+      AsciiDocBenchmarkFixture.set(null);
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.editor.browser.BrowserPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepares the HTML for the browser preview, which rewrites the links to images and other resources.
+ * The render cache is enabled, so that after the first invocation this measures the rewriting of the HTML and not the conversion.
+ * The document contains an image for each section, and the hash of each image is calculated for its URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class BrowserHtmlBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int lines;
+
+  private Path dir;
+  private VirtualFile file;
+  private BrowserPanel panel;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("asciidoc-benchmark");
+    String text = AsciiDocBenchmarkFixture.generate(dir, lines, AsciiDocBenchmarkFixture.Variant.PLAIN);
+    StringBuilder withImages = new StringBuilder();
+    int images = 0;
+    for (String s : text.split("\n", -1)) {
+      if (s.startsWith("== ")) {
+        // an existing image before each section, so that each of them needs to be hashed
+        String name = "image-" + images + ".png";
+        writeImage(dir.resolve(name), images++);
+        withImages.append("image::").append(name).append("[]\n\n");
+      }
+      withImages.append(s).append('\n');
+    }
+    Files.writeString(dir.resolve("main.adoc"), withImages, StandardCharsets.UTF_8);
+    file = Objects.requireNonNull(LocalFileSystem.getInstance().refreshAndFindFileByNioFile(dir.resolve("main.adoc")));
+    panel = new BrowserPanel();
+  }
+
+  private static void writeImage(Path path, int seed) throws IOException {
+    BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < image.getWidth(); ++x) {
+      for (int y = 0; y < image.getHeight(); ++y) {
+        image.setRGB(x, y, (seed * 7919 + x * 31 + y) & 0xFFFFFF);
+      }
+    }
+    ImageIO.write(image, "png", path.toFile());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Disposer.dispose(panel);
+    AsciiDocBenchmarkFixture.delete(dir);
+  }
+
+  @Benchmark
+  public String getHtml() {
+    return panel.getHtml(file, AsciiDocBenchmarkFixture.getProject());
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the <code>.asciidoctorconfig</code> files that apply to a document in a deeply nested folder,
+ * which happens before each render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class ConfigBenchmark {
+
+  @Param({"5", "20"})
+  private int depth;
+
+  private VirtualFile file;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    CodeInsightTestFixture fixture = AsciiDocBenchmarkFixture.getFixture();
+    EdtTestUtil.runInEdtAndWait(() -> {
+      StringBuilder path = new StringBuilder("config-" + depth + "/");
+      for (int i = 0; i < depth; ++i) {
+        fixture.addFileToProject(path + ".asciidoctorconfig", ":attribute-" + i + ": value\n");
+        path.append("level").append(i).append('/');
+      }
+      file = fixture.addFileToProject(path + "main.adoc", "= Document\n").getVirtualFile();
+    });
+  }
+
+  @Benchmark
+  public String config() {
+    return AsciiDocWrapper.config(file, AsciiDocBenchmarkFixture.getProject());
+  }
+
+}
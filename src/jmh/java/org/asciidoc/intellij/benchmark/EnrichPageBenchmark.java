@@ -0,0 +1,62 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds the stylesheets and scripts to the rendered HTML of a document, as the preview does after each render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class EnrichPageBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int lines;
+
+  private String html;
+  private Map<String, String> attributes;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    Path dir = Files.createTempDirectory("asciidoc-benchmark");
+    try {
+      String text = AsciiDocBenchmarkFixture.generate(dir, lines, AsciiDocBenchmarkFixture.Variant.PLAIN);
+      VirtualFile baseDir = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(dir);
+      AsciiDocWrapper wrapper = new AsciiDocWrapper(AsciiDocBenchmarkFixture.getProject(), baseDir, null, "main.adoc");
+      html = "<head></head>" + wrapper.render(text, Collections.emptyList());
+      attributes = wrapper.getAttributes();
+    } finally {
+      AsciiDocBenchmarkFixture.delete(dir);
+    }
+  }
+
+  @Benchmark
+  public String enrichPage() {
+    return AsciiDocWrapper.enrichPage(html, "/* standard css */", null, null, attributes, AsciiDocBenchmarkFixture.getProject());
+  }
+
+}
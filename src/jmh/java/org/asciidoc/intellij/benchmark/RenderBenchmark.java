@@ -0,0 +1,74 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.registry.RegistryValue;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a document to HTML for the preview with an Asciidoctor instance that has already been created and used.
+ * The render cache is disabled, so that each invocation converts the document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(0)
+public class RenderBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int lines;
+
+  @Param({"PLAIN", "INCLUDES", "DIAGRAMS"})
+  private AsciiDocBenchmarkFixture.Variant variant;
+
+  private Path dir;
+  private String text;
+  private AsciiDocWrapper wrapper;
+  private RegistryValue cacheSize;
+  private int previousCacheSize;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    cacheSize = Registry.get("asciidoc.render.cache.size");
+    previousCacheSize = cacheSize.asInteger();
+    cacheSize.setValue(0);
+    dir = Files.createTempDirectory("asciidoc-benchmark");
+    text = AsciiDocBenchmarkFixture.generate(dir, lines, variant);
+    VirtualFile baseDir = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(dir);
+    wrapper = new AsciiDocWrapper(AsciiDocBenchmarkFixture.getProject(), baseDir, null, "main.adoc");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cacheSize.setValue(previousCacheSize);
+    AsciiDocBenchmarkFixture.delete(dir);
+  }
+
+  @Benchmark
+  public String render() {
+    return wrapper.render(text, Collections.emptyList());
+  }
+
+}
@@ -0,0 +1,99 @@
+package org.asciidoc.intellij.benchmark;
+
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.registry.RegistryValue;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a document to HTML for the preview with a new Asciidoctor instance, which is what the user waits for when opening
+ * the first preview. This includes loading the extensions and preparing the instance in the same way as for the preview.
+ * JRuby's JIT is shared within the JVM, therefore later iterations are faster than a real first render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(0)
+public class RenderColdBenchmark {
+
+  @Param({"1000", "10000", "50000"})
+  private int lines;
+
+  @Param({"PLAIN", "INCLUDES", "DIAGRAMS"})
+  private AsciiDocBenchmarkFixture.Variant variant;
+
+  private Path dir;
+  private String text;
+  private AsciiDocWrapper wrapper;
+  private RegistryValue cacheSize;
+  private int previousCacheSize;
+  private Map<?, ?> instances;
+  private Method evict;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, ReflectiveOperationException {
+    cacheSize = Registry.get("asciidoc.render.cache.size");
+    previousCacheSize = cacheSize.asInteger();
+    cacheSize.setValue(0);
+    dir = Files.createTempDirectory("asciidoc-benchmark");
+    text = AsciiDocBenchmarkFixture.generate(dir, lines, variant);
+    VirtualFile baseDir = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(dir);
+    wrapper = new AsciiDocWrapper(AsciiDocBenchmarkFixture.getProject(), baseDir, null, "main.adoc");
+    // the wrapper keeps its instances private, access them the same way as the wrapper evicts a pool when there are too many
+    Field field = AsciiDocWrapper.class.getDeclaredField("INSTANCES");
+    field.setAccessible(true);
+    instances = (Map<?, ?>) field.get(null);
+    evict = Class.forName(AsciiDocWrapper.class.getName() + "$InstancePool").getDeclaredMethod("evict");
+    evict.setAccessible(true);
+  }
+
+  /**
+   * Shut down all idle instances, so that the next render needs to create a new instance, as for the first preview.
+   */
+  @Setup(Level.Invocation)
+  public void evictInstances() throws ReflectiveOperationException {
+    synchronized (instances) {
+      for (Object pool : instances.values()) {
+        evict.invoke(pool);
+      }
+      instances.clear();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    cacheSize.setValue(previousCacheSize);
+    AsciiDocBenchmarkFixture.delete(dir);
+  }
+
+  @Benchmark
+  public String render() {
+    return wrapper.render(text, Collections.emptyList());
+  }
+
+}
@@ -0,0 +1,211 @@
+package org.asciidoc.intellij;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.PathUtil;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content of all <code>.asciidoctorconfig</code> files that apply to a folder, from the content root down to the folder.
+ * The content for a folder is built from the content of its parent folder, so that each folder is looked up only once.
+ * The cache is cleared when a config file changes, or when a folder is moved or deleted.
+ */
+@Service(Service.Level.PROJECT)
+public final class AsciiDocConfigCache implements Disposable {
+
+  private static final String[] CONFIG_NAMES = new String[]{".asciidoctorconfig", ".asciidoctorconfig.adoc"};
+
+  private final Project project;
+
+  private final Map<VirtualFile, String> configs = new ConcurrentHashMap<>();
+
+  /**
+   * Roots are only ever added, therefore a change in the number of roots indicates that the cached content might be incomplete.
+   */
+  private volatile int rootsCount = -1;
+
+  /**
+   * Counts the changes of config files and folders. If it changed while the content for a folder was built from its
+   * parent folders, the content might mix old and new files; it is then returned once, but not cached.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  public AsciiDocConfigCache(Project project) {
+    this.project = project;
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        processEvents(events);
+      }
+
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        processEvents(events);
+      }
+    });
+    EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+      @Override
+      public void documentChanged(@NotNull DocumentEvent event) {
+        if (configs.isEmpty()) {
+          return;
+        }
+        VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+        if (file != null && isConfigName(file.getName())) {
+          clear();
+        }
+      }
+    }, this);
+  }
+
+  public static AsciiDocConfigCache getInstance(@NotNull Project project) {
+    return project.getService(AsciiDocConfigCache.class);
+  }
+
+  /**
+   * Return the content of the config files that apply to the given file.
+   * If the file is a config file itself, it is not included in the result.
+   */
+  @NotNull
+  public String config(@NotNull VirtualFile currentFile) {
+    VirtualFile folder = currentFile.getParent();
+    if (folder == null) {
+      return "";
+    }
+    Collection<VirtualFile> roots = AsciiDocUtil.getRoots(project);
+    if (roots.size() != rootsCount) {
+      clear();
+      rootsCount = roots.size();
+    }
+    if (isConfigName(currentFile.getName())) {
+      // a config file sees the configs in its own folder except itself, therefore this isn't cached
+      return parentConfig(folder, roots) + configInFolder(folder, currentFile);
+    }
+    return config(folder, roots);
+  }
+
+  private String config(VirtualFile folder, Collection<VirtualFile> roots) {
+    String result = configs.get(folder);
+    if (result != null) {
+      return result;
+    }
+    long start = generation.get();
+    // collect folders up to the root or the first folder already cached, then build the content downwards
+    List<VirtualFile> folders = new ArrayList<>();
+    String parentConfig = "";
+    VirtualFile current = folder;
+    while (current != null) {
+      String cached = configs.get(current);
+      if (cached != null) {
+        parentConfig = cached;
+        break;
+      }
+      folders.add(current);
+      if (roots.contains(current)) {
+        break;
+      }
+      current = current.getParent();
+    }
+    for (int i = folders.size() - 1; i >= 0; --i) {
+      VirtualFile f = folders.get(i);
+      parentConfig = parentConfig + configInFolder(f, null);
+      if (generation.get() == start) {
+        configs.put(f, parentConfig);
+      }
+    }
+    return parentConfig;
+  }
+
+  private String parentConfig(VirtualFile folder, Collection<VirtualFile> roots) {
+    if (roots.contains(folder) || folder.getParent() == null) {
+      return "";
+    }
+    return config(folder.getParent(), roots);
+  }
+
+  private static String configInFolder(VirtualFile folder, @Nullable VirtualFile exclude) {
+    StringBuilder result = new StringBuilder();
+    // the last config file of a folder is placed first, as it was prepended last in previous versions
+    for (int i = CONFIG_NAMES.length - 1; i >= 0; --i) {
+      VirtualFile configFile = folder.findChild(CONFIG_NAMES[i]);
+      if (configFile != null && !configFile.equals(exclude)) {
+        AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+          Document config = FileDocumentManager.getInstance().getDocument(configFile);
+          if (config != null) {
+            // prepend the location of the config file, and add two newlines to avoid sticking-together content
+            result.append(":asciidoctorconfigdir: ").append(folder.getCanonicalPath()).append("\n\n")
+              .append(config.getText()).append("\n\n");
+          }
+        });
+      }
+    }
+    return result.toString();
+  }
+
+  private void processEvents(@NotNull List<? extends VFileEvent> events) {
+    if (configs.isEmpty()) {
+      return;
+    }
+    for (VFileEvent event : events) {
+      if (affectsConfig(event)) {
+        clear();
+        return;
+      }
+    }
+  }
+
+  private static boolean affectsConfig(VFileEvent event) {
+    if (isConfigName(PathUtil.getFileName(event.getPath()))) {
+      return true;
+    }
+    if (event instanceof VFilePropertyChangeEvent propertyChangeEvent && VirtualFile.PROP_NAME.equals(propertyChangeEvent.getPropertyName())) {
+      return isConfigName(String.valueOf(propertyChangeEvent.getOldValue())) || isConfigName(String.valueOf(propertyChangeEvent.getNewValue()))
+        || propertyChangeEvent.getFile().isDirectory();
+    }
+    // the content includes the paths of the folders, and a deleted folder might have contained config files
+    VirtualFile file = event.getFile();
+    return (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent) && file != null && file.isDirectory();
+  }
+
+  private static boolean isConfigName(String name) {
+    for (String configName : CONFIG_NAMES) {
+      if (configName.equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void clear() {
+    generation.incrementAndGet();
+    configs.clear();
+  }
+
+  @Override
+  public void dispose() {
+    clear();
+  }
+
+}
@@ -0,0 +1,157 @@
+package org.asciidoc.intellij;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fingerprint of the extensions of a project, used to decide if an existing Asciidoctor instance can be re-used.
+ * Calculating it reads all extension files and all files in their sibling folders, therefore it is kept in memory
+ * until a file in one of those folders changes.
+ */
+@Service
+public final class AsciiDocExtensionFingerprint implements Disposable {
+
+  private record Entry(@NotNull String md, @NotNull List<String> folders) {
+  }
+
+  private final Map<String, Entry> fingerprints = new HashMap<>();
+
+  /**
+   * Incremented on each invalidation, so that a fingerprint calculated concurrently to a change isn't stored.
+   */
+  private long generation;
+
+  public AsciiDocExtensionFingerprint() {
+    ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        invalidate(events);
+      }
+    });
+  }
+
+  public static AsciiDocExtensionFingerprint getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocExtensionFingerprint.class);
+  }
+
+  public @NotNull String calcMd(@NotNull String projectBasePath, @NotNull List<String> extensions) {
+    String key = projectBasePath + "\n" + String.join("\n", extensions);
+    long start;
+    synchronized (fingerprints) {
+      Entry entry = fingerprints.get(key);
+      if (entry != null) {
+        return entry.md();
+      }
+      start = generation;
+    }
+    List<String> folders = new ArrayList<>();
+    String md = calcMd(projectBasePath, extensions, folders);
+    synchronized (fingerprints) {
+      if (generation == start) {
+        fingerprints.put(key, new Entry(md, folders));
+      }
+    }
+    return md;
+  }
+
+  private void invalidate(@NotNull List<? extends VFileEvent> events) {
+    synchronized (fingerprints) {
+      if (fingerprints.isEmpty()) {
+        return;
+      }
+      boolean changed = false;
+      for (VFileEvent event : events) {
+        String path = event.getPath();
+        changed |= fingerprints.values().removeIf(entry -> entry.folders().stream().anyMatch(folder -> FileUtil.isAncestor(folder, path, false)));
+      }
+      if (changed) {
+        generation++;
+      }
+    }
+  }
+
+  /**
+   * Calculate a hash for the extensions.
+   * Hash will change if the project has been changed, of the contents of files have changed.
+   * This will also include all files in subdirectories of the extension when creating the hash.
+   */
+  private static String calcMd(String projectBasePath, List<String> extensions, List<String> watchedFolders) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("MD5");
+      md.update(projectBasePath.getBytes(StandardCharsets.UTF_8));
+      List<Path> folders = new ArrayList<>();
+      for (String s : extensions) {
+        try {
+          try (InputStream is = new FileInputStream(s)) {
+            md.update(IOUtils.toByteArray(is));
+          }
+          Path parent = FileSystems.getDefault().getPath(s).getParent();
+          if (!folders.contains(parent)) {
+            folders.add(parent);
+            watchedFolders.add(FileUtil.toSystemIndependentName(parent.toString()));
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, Files::isDirectory)) {
+              for (Path p : stream) {
+                scanForRubyFiles(p, md);
+              }
+            }
+          }
+        } catch (IOException e) {
+          throw new RuntimeException("unable to read file", e);
+        }
+      }
+      byte[] mdbytes = md.digest();
+      StringBuilder sb = new StringBuilder();
+      for (byte mdbyte : mdbytes) {
+        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("unknown hash", e);
+    }
+  }
+
+  private static void scanForRubyFiles(Path path, MessageDigest md) throws IOException {
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+      for (Path p : stream) {
+        if (Files.isDirectory(p)) {
+          scanForRubyFiles(p, md);
+        }
+        if (Files.isRegularFile(p) && Files.isReadable(p)) {
+          try (InputStream is = Files.newInputStream(p)) {
+            md.update(IOUtils.toByteArray(is));
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (fingerprints) {
+      fingerprints.clear();
+    }
+  }
+
+}
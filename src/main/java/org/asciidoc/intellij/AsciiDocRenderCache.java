@@ -0,0 +1,90 @@
+package org.asciidoc.intellij;
+
+import com.intellij.openapi.util.registry.Registry;
+import org.asciidoctor.log.LogRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of previous renders, shared by the preview, the annotator and the browser preview.
+ * They often render the same content within a short time. The key is a hash of everything that is passed to Asciidoctor,
+ * see {@link #key(Object...)}.
+ */
+public final class AsciiDocRenderCache {
+
+  /**
+   * Don't cache very large results, as this would keep a lot of memory occupied.
+   */
+  private static final int MAX_HTML_LENGTH = 5 * 1024 * 1024;
+
+  /**
+   * Result of a render.
+   *
+   * @param imagesPath folder where images have been rendered to; the HTML refers to images in this folder
+   */
+  record Entry(@NotNull String html, @NotNull Map<String, String> attributes, @NotNull List<LogRecord> logRecords,
+               @Nullable Path imagesPath) {
+  }
+
+  private static final LinkedHashMap<String, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > getMaxEntries();
+    }
+  };
+
+  private AsciiDocRenderCache() {
+  }
+
+  private static int getMaxEntries() {
+    return Registry.intValue("asciidoc.render.cache.size", 20);
+  }
+
+  @Nullable
+  static synchronized Entry get(@NotNull String key) {
+    return CACHE.get(key);
+  }
+
+  static synchronized void put(@NotNull String key, @NotNull Entry entry) {
+    if (entry.html().length() > MAX_HTML_LENGTH || getMaxEntries() <= 0) {
+      return;
+    }
+    // the attributes are not modified after the render, and their map resolves nested attributes on access, therefore don't copy them
+    CACHE.put(key, new Entry(entry.html(), entry.attributes(), List.copyOf(entry.logRecords()), entry.imagesPath()));
+  }
+
+  public static synchronized void clear() {
+    CACHE.clear();
+  }
+
+  /**
+   * Calculate a hash over all parts. Each part is converted to its string representation.
+   */
+  static String key(Object... parts) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      for (Object part : parts) {
+        md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+        // separator to avoid collisions when moving characters from one part to the next
+        md.update((byte) 0);
+      }
+      byte[] mdbytes = md.digest();
+      StringBuilder sb = new StringBuilder();
+      for (byte mdbyte : mdbytes) {
+        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("unknown hash", e);
+    }
+  }
+
+}
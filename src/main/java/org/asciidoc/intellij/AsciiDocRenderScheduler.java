@@ -0,0 +1,231 @@
+package org.asciidoc.intellij;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which conversion runs next when more conversions are requested than can run in parallel.
+ * The preview runs first, then the annotator, then the browser preview, and exports and other background conversions last.
+ * Each class has a limit of conversions running in parallel, so that for example a long-running PDF export doesn't occupy
+ * all slots. A request that waited for too long is served first regardless of its class, so that no class starves.
+ * The total number of slots is configured via the registry key <code>asciidoc.render.scheduler.slots</code>.
+ */
+@Service
+public final class AsciiDocRenderScheduler {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocRenderScheduler.class);
+
+  /**
+   * After this time a waiting request is served before requests of higher priority.
+   */
+  private static final long STARVATION_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  /**
+   * Classes of conversions, in the order they are served.
+   */
+  public enum Priority {
+    PREVIEW,
+    ANNOTATOR,
+    BROWSER,
+    BACKGROUND
+  }
+
+  /**
+   * A slot for a conversion, to be closed once the conversion completes.
+   */
+  public final class Ticket implements AutoCloseable {
+    private final Priority priority;
+    private boolean closed;
+
+    private Ticket(Priority priority) {
+      this.priority = priority;
+    }
+
+    @Override
+    public void close() {
+      synchronized (lock) {
+        if (!closed) {
+          closed = true;
+          running[priority.ordinal()]--;
+          grant();
+        }
+      }
+    }
+  }
+
+  /**
+   * Statistics of one class of conversions since the IDE started.
+   *
+   * @param waiting   number of requests waiting for a slot right now
+   * @param running   number of conversions running right now
+   * @param completed number of requests that received a slot
+   */
+  public record Statistics(Priority priority, int waiting, int running, long completed, long averageWaitMillis, long maxWaitMillis) {
+  }
+
+  private static final class Waiter {
+    private final Priority priority;
+    private final long enqueued = System.nanoTime();
+    private boolean granted;
+
+    private Waiter(Priority priority) {
+      this.priority = priority;
+    }
+  }
+
+  private final Object lock = new Object();
+  private final List<Waiter> waiting = new ArrayList<>();
+  private final int[] running = new int[Priority.values().length];
+  private final long[] completed = new long[Priority.values().length];
+  private final long[] totalWaitNanos = new long[Priority.values().length];
+  private final long[] maxWaitNanos = new long[Priority.values().length];
+
+  public static AsciiDocRenderScheduler getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocRenderScheduler.class);
+  }
+
+  private static int getSlots() {
+    return Math.max(1, Registry.intValue("asciidoc.render.scheduler.slots", 3));
+  }
+
+  /**
+   * Maximum number of conversions of a class running in parallel.
+   * The preview may use all slots. Together, all other classes leave one slot for the preview, see {@link #grant()}.
+   */
+  private static int getLimit(Priority priority, int slots) {
+    return switch (priority) {
+      case PREVIEW -> slots;
+      case ANNOTATOR -> Math.max(1, slots - 1);
+      case BROWSER, BACKGROUND -> 1;
+    };
+  }
+
+  /**
+   * Wait for a slot for a conversion.
+   *
+   * @param timeout timeout in seconds, or zero to wait without a timeout
+   * @throws ProcessCanceledException if the timeout expires, or the current progress indicator is cancelled
+   */
+  public @NotNull Ticket acquire(@NotNull Priority priority, int timeout) {
+    Waiter waiter = new Waiter(priority);
+    synchronized (lock) {
+      waiting.add(waiter);
+      boolean success = false;
+      try {
+        while (true) {
+          // grant on each round, as the number of slots might have changed in the registry
+          grant();
+          if (waiter.granted) {
+            break;
+          }
+          if (timeout != 0 && System.nanoTime() - waiter.enqueued > TimeUnit.SECONDS.toNanos(timeout)) {
+            LOG.warn("unable to acquire render slot after timeout");
+            throw new ProcessCanceledException(new RuntimeException("unable to acquire render slot after timeout"));
+          }
+          lock.wait(50);
+          ProgressManager.checkCanceled();
+        }
+        success = true;
+      } catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      } finally {
+        if (!success) {
+          if (waiter.granted) {
+            // another thread granted the slot while this one was cancelled, pass it on
+            running[priority.ordinal()]--;
+            grant();
+          } else {
+            waiting.remove(waiter);
+          }
+        }
+      }
+      long waited = System.nanoTime() - waiter.enqueued;
+      int index = priority.ordinal();
+      completed[index]++;
+      totalWaitNanos[index] += waited;
+      maxWaitNanos[index] = Math.max(maxWaitNanos[index], waited);
+    }
+    return new Ticket(priority);
+  }
+
+  /**
+   * Hand out free slots to waiting requests. Must be called while holding the lock.
+   * Conversions other than the preview together use at most all slots but one, so that a preview never waits for
+   * a slot while for example an annotator and an export run in parallel. With a single slot, this reservation is not possible.
+   */
+  private void grant() {
+    int slots = getSlots();
+    int nonPreviewLimit = Math.max(1, slots - 1);
+    int total = 0;
+    for (int r : running) {
+      total += r;
+    }
+    int nonPreview = total - running[Priority.PREVIEW.ordinal()];
+    boolean granted = false;
+    while (total < slots) {
+      Waiter next = null;
+      long now = System.nanoTime();
+      for (Waiter candidate : waiting) {
+        if (running[candidate.priority.ordinal()] >= getLimit(candidate.priority, slots)) {
+          continue;
+        }
+        if (candidate.priority != Priority.PREVIEW && nonPreview >= nonPreviewLimit) {
+          continue;
+        }
+        if (next == null || isBefore(candidate, next, now)) {
+          next = candidate;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      waiting.remove(next);
+      next.granted = true;
+      running[next.priority.ordinal()]++;
+      total++;
+      if (next.priority != Priority.PREVIEW) {
+        nonPreview++;
+      }
+      granted = true;
+    }
+    if (granted) {
+      lock.notifyAll();
+    }
+  }
+
+  private static boolean isBefore(Waiter candidate, Waiter other, long now) {
+    boolean candidateStarving = now - candidate.enqueued > STARVATION_NANOS;
+    boolean otherStarving = now - other.enqueued > STARVATION_NANOS;
+    if (candidateStarving != otherStarving) {
+      return candidateStarving;
+    }
+    if (!candidateStarving && candidate.priority != other.priority) {
+      return candidate.priority.ordinal() < other.priority.ordinal();
+    }
+    return candidate.enqueued < other.enqueued;
+  }
+
+  public @NotNull List<Statistics> getStatistics() {
+    synchronized (lock) {
+      List<Statistics> result = new ArrayList<>();
+      for (Priority priority : Priority.values()) {
+        int index = priority.ordinal();
+        int count = (int) waiting.stream().filter(waiter -> waiter.priority == priority).count();
+        result.add(new Statistics(priority, count, running[index], completed[index],
+          completed[index] > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos[index] / completed[index]) : 0,
+          TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[index])));
+      }
+      return result;
+    }
+  }
+
+}
@@ -26,11 +26,14 @@ import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.util.CachedValue;
@@ -45,6 +48,7 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.apache.geronimo.gshell.io.SystemOutputHijacker;
 import org.asciidoc.intellij.asciidoc.AntoraIncludeAdapter;
 import org.asciidoc.intellij.asciidoc.AntoraReferenceAdapter;
+import org.asciidoc.intellij.asciidoc.AsciiDocCursor;
 import org.asciidoc.intellij.asciidoc.AttributesRetriever;
 import org.asciidoc.intellij.asciidoc.PrependConfig;
 import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
@@ -58,13 +62,17 @@ import org.asciidoc.intellij.psi.AttributeDeclaration;
 import org.asciidoc.intellij.psi.search.AsciiDocAntoraPlaybookIndex;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoc.intellij.threading.AsciiDocRenderCancellation;
 import org.asciidoc.intellij.ui.FileAccessProblem;
+import org.asciidoc.intellij.worker.AsciiDocWorkerPool;
+import org.asciidoc.intellij.worker.AsciiDocWorkerProtocol;
 import org.asciidoctor.Asciidoctor;
 import org.asciidoctor.Attributes;
 import org.asciidoctor.AttributesBuilder;
 import org.asciidoctor.Options;
 import org.asciidoctor.OptionsBuilder;
 import org.asciidoctor.SafeMode;
+import org.asciidoctor.ast.Cursor;
 import org.asciidoctor.jruby.AsciidoctorJRuby;
 import org.asciidoctor.jruby.internal.AsciidoctorCoreException;
 import org.asciidoctor.log.LogHandler;
@@ -83,7 +91,6 @@ import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.YAMLException;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
@@ -92,16 +99,14 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.DirectoryStream;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
@@ -112,9 +117,12 @@ import java.util.Objects;
 import java.util.ServiceConfigurationError;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -144,7 +152,15 @@ public class AsciiDocWrapper {
   private File fileBaseDir;
   private String name;
 
-  private static final ReentrantLock LOCK = new ReentrantLock();
+  /**
+   * Renders share this lock, so they can run in parallel. Unloading the plugin takes the write lock to wait for all renders to complete.
+   */
+  private static final ReentrantReadWriteLock RENDER_LOCK = new ReentrantReadWriteLock();
+
+  /**
+   * Creating an Asciidoctor instance hijacks the system output and changes system properties, therefore create only one at a time.
+   */
+  private static final ReentrantLock INIT_LOCK = new ReentrantLock();
 
   public static NotificationGroup getNotificationGroup() {
     NotificationGroup notificationGroup = NotificationGroupManager
@@ -160,12 +176,60 @@ public class AsciiDocWrapper {
     return notificationGroup;
   }
 
-  private static class MaxHashMap extends LinkedHashMap<String, Asciidoctor> {
+  /**
+   * An Asciidoctor instance together with the extensions that hold the state of the current render.
+   * As an instance is used by only one thread at a time, this state doesn't need to be shared with other renders.
+   */
+  private static final class PooledAsciidoctor {
+    private final Asciidoctor asciidoctor;
+    private final PrependConfig prependConfig = new PrependConfig();
+    private final AntoraIncludeAdapter antoraIncludeAdapter = new AntoraIncludeAdapter();
+    private final AttributesRetriever attributesRetriever = new AttributesRetriever();
+
+    private PooledAsciidoctor(Asciidoctor asciidoctor) {
+      this.asciidoctor = asciidoctor;
+    }
+  }
+
+  /**
+   * All instances for one combination of extensions and file type.
+   * The number of permits limits the number of instances, and therefore the number of renders running in parallel.
+   */
+  private static final class InstancePool {
+    private final Semaphore permits;
+    private final Deque<PooledAsciidoctor> idle = new ArrayDeque<>();
+    private boolean evicted;
+
+    private InstancePool(int maxSize) {
+      permits = new Semaphore(maxSize);
+    }
+
+    private synchronized PooledAsciidoctor poll() {
+      return idle.poll();
+    }
+
+    private synchronized void release(PooledAsciidoctor instance) {
+      if (evicted) {
+        instance.asciidoctor.shutdown();
+      } else {
+        idle.push(instance);
+      }
+    }
+
+    private synchronized void evict() {
+      evicted = true;
+      idle.forEach(instance -> instance.asciidoctor.shutdown());
+      idle.clear();
+    }
+  }
+
+  private static class MaxHashMap extends LinkedHashMap<String, InstancePool> {
     @Override
-    protected boolean removeEldestEntry(Map.Entry<String, Asciidoctor> eldest) {
-      // cache up to three instances (for example: javafx, pdf, spring-restdocs)
+    protected boolean removeEldestEntry(Map.Entry<String, InstancePool> eldest) {
+      // cache up to three pools (for example: javafx, pdf, spring-restdocs)
       if (this.size() > 3) {
-        eldest.getValue().shutdown();
+        // instances still in use will shut down once they are released
+        eldest.getValue().evict();
         return true;
       } else {
         return false;
@@ -175,26 +239,21 @@ public class AsciiDocWrapper {
 
   private static final MaxHashMap INSTANCES = new MaxHashMap();
 
-  private static boolean shutdown = false;
-
-  private static PrependConfig prependConfig;
+  private static volatile boolean shutdown = false;
 
-  private static AntoraIncludeAdapter antoraIncludeAdapter;
-
-  @Nullable
-  private static AttributesRetriever attributesRetriever;
+  /**
+   * Attributes as of after the last render of this document.
+   */
+  private volatile Map<String, String> attributes = Collections.emptyMap();
 
   private static final com.intellij.openapi.diagnostic.Logger LOG =
     com.intellij.openapi.diagnostic.Logger.getInstance(AsciiDocWrapper.class);
 
   public static String checkUnloadPlugin() {
-    lock();
-    try {
+    synchronized (INSTANCES) {
       if (!INSTANCES.isEmpty()) {
         return "expecting JRuby classloader issues, don't allow unloading";
       }
-    } finally {
-      unlock();
     }
     return null;
   }
@@ -202,16 +261,24 @@ public class AsciiDocWrapper {
   @SuppressWarnings("DoNotCall")
   public static void beforePluginUnload() {
     LOG.info("shutting down Asciidoctor instances");
-    lock();
+    // the write lock waits for all renders to complete, therefore all instances are idle
+    acquire(RENDER_LOCK.writeLock(), validateAccess());
     try {
       shutdown = true;
-      LOG.info("about to shutdown " + INSTANCES.size() + " instances");
-      INSTANCES.forEach((key, value) -> {
-        value.unregisterAllExtensions();
-        value.close();
-      });
-      LOG.info("all instances shut down");
-      INSTANCES.clear();
+      synchronized (INSTANCES) {
+        LOG.info("about to shutdown " + INSTANCES.size() + " pools");
+        INSTANCES.forEach((key, pool) -> {
+          PooledAsciidoctor instance;
+          while ((instance = pool.poll()) != null) {
+            instance.asciidoctor.unregisterAllExtensions();
+            instance.asciidoctor.close();
+          }
+        });
+        LOG.info("all instances shut down");
+        INSTANCES.clear();
+        AsciiDocRenderCache.clear();
+      }
+      AsciiDocWorkerPool.shutdown();
       if (SystemOutputHijacker.isInstalled()) {
         SystemOutputHijacker.uninstall();
       }
@@ -231,16 +298,13 @@ public class AsciiDocWrapper {
       } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
         LOG.error("unable to de-register shutdown hook", e);
       }
-      attributesRetriever = null;
-      antoraIncludeAdapter = null;
-      prependConfig = null;
       System.gc();
       // still, this is not enough; there are dangling ThreadLocals like "org.jruby.Ruby$FStringEqual"
       // in addition to that: classes are marked at "Held by JVM" and not unloaded. Reason is unknown, maybe
       // "custom class loaders when they are in the process of loading classes" as of
       // https://www.yourkit.com/docs/java/help/gc_roots.jsp
     } finally {
-      unlock();
+      RENDER_LOCK.writeLock().unlock();
     }
   }
 
@@ -281,8 +345,12 @@ public class AsciiDocWrapper {
     this.project = project;
   }
 
+  /**
+   * Take an instance from the pool matching the extensions and file type, creating a new one if no idle instance is available.
+   * Pass the instance to {@link #release(PooledAsciidoctor, InstancePool)} once the rendering is complete.
+   */
   @SuppressWarnings("checkstyle:MethodLength")
-  private Asciidoctor initWithExtensions(List<String> extensions, boolean springRestDocs, FileType format) {
+  private PooledAsciidoctor initWithExtensions(List<String> extensions, boolean springRestDocs, FileType format, InstancePool[] poolHolder, int timeout) {
     if (shutdown) {
       throw new ProcessCanceledException();
     }
@@ -294,10 +362,10 @@ public class AsciiDocWrapper {
     String md;
     if (Boolean.TRUE.equals(asciiDocApplicationSettings.getExtensionsEnabled(project, root))) {
       extensionsEnabled = true;
-      md = calcMd(root, extensions);
+      md = AsciiDocExtensionFingerprint.getInstance().calcMd(root, extensions);
     } else {
       extensionsEnabled = false;
-      md = calcMd(root, Collections.emptyList());
+      md = AsciiDocExtensionFingerprint.getInstance().calcMd(root, Collections.emptyList());
     }
     if (springRestDocs) {
       md = md + ".restdoc";
@@ -321,8 +389,24 @@ public class AsciiDocWrapper {
     if (pdfPresent) {
       md = md + ".pdf";
     }
-    Asciidoctor asciidoctor = INSTANCES.get(md);
-    if (asciidoctor == null) {
+    InstancePool pool;
+    synchronized (INSTANCES) {
+      pool = INSTANCES.computeIfAbsent(md, k -> new InstancePool(getPoolSize()));
+    }
+    acquire(pool.permits, timeout);
+    PooledAsciidoctor instance = pool.poll();
+    if (instance != null) {
+      poolHolder[0] = pool;
+      return instance;
+    }
+    try {
+      acquire(INIT_LOCK, timeout);
+    } catch (RuntimeException e) {
+      pool.permits.release();
+      throw e;
+    }
+    Asciidoctor asciidoctor = null;
+    try {
       ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
       ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
       SystemOutputHijacker.install();
@@ -347,15 +431,16 @@ public class AsciiDocWrapper {
         }
       }
       try {
-        asciidoctor = createInstance(extensionsEnabled ? extensions : Collections.emptyList());
+        instance = createInstance(extensionsEnabled ? extensions : Collections.emptyList());
+        asciidoctor = instance.asciidoctor;
         asciidoctor.registerLogHandler(logHandler);
         // require openssl library here to enable download content via https
         // requiring it later after other libraries have been loaded results in "undefined method `set_params' for #<OpenSSL::SSL::SSLContext"
         asciidoctor.requireLibrary("openssl");
-        asciidoctor.javaExtensionRegistry().preprocessor(prependConfig);
-        asciidoctor.javaExtensionRegistry().includeProcessor(antoraIncludeAdapter);
+        asciidoctor.javaExtensionRegistry().preprocessor(instance.prependConfig);
+        asciidoctor.javaExtensionRegistry().includeProcessor(instance.antoraIncludeAdapter);
         if (format == FileType.JAVAFX || format == FileType.HTML || format == FileType.JCEF || format == FileType.DOCX || format == FileType.BROWSER) {
-          asciidoctor.javaExtensionRegistry().postprocessor(attributesRetriever);
+          asciidoctor.javaExtensionRegistry().postprocessor(instance.attributesRetriever);
         }
         // disable JUL logging of captured messages
         // https://github.com/asciidoctor/asciidoctorj/issues/669
@@ -458,7 +543,7 @@ public class AsciiDocWrapper {
             }
           }
         }
-        INSTANCES.put(md, asciidoctor);
+        poolHolder[0] = pool;
       } catch (IOException e) {
         throw new RuntimeException(e);
       } finally {
@@ -472,8 +557,33 @@ public class AsciiDocWrapper {
         SystemOutputHijacker.uninstall();
         notify(boasOut, boasErr, Collections.emptyList());
       }
+    } finally {
+      INIT_LOCK.unlock();
+      if (poolHolder[0] == null) {
+        // creating the instance failed, return the permit so others can try again
+        pool.permits.release();
+      }
+    }
+    return instance;
+  }
+
+  private static void release(@Nullable PooledAsciidoctor instance, @Nullable InstancePool pool) {
+    if (instance != null && pool != null) {
+      if (shutdown) {
+        instance.asciidoctor.shutdown();
+      } else {
+        pool.release(instance);
+      }
+      pool.permits.release();
     }
-    return asciidoctor;
+  }
+
+  /**
+   * Number of instances per combination of extensions and file type.
+   * Each instance needs a lot of memory, therefore keep this small.
+   */
+  private static int getPoolSize() {
+    return Math.max(1, Registry.intValue("asciidoc.render.pool.size", 2));
   }
 
   private boolean isDiagramPresent() {
@@ -511,7 +621,7 @@ public class AsciiDocWrapper {
   /**
    * Create an instance of Asciidoctor.
    */
-  private Asciidoctor createInstance(List<String> extensions) {
+  private PooledAsciidoctor createInstance(List<String> extensions) {
     ClassLoader cl = this.getClass().getClassLoader();
     List<URL> urls = new ArrayList<>();
     try {
@@ -579,79 +689,14 @@ public class AsciiDocWrapper {
       Thread.currentThread().setContextClassLoader(cl);
       AsciidoctorJRuby asciidoctorJRuby = AsciidoctorJRuby.Factory.create(cl);
 
-      /* initialize these lazily, as they call service loader things */
-      // TODO: have one instance matching each Asciidoctor instance we're using?
-      if (prependConfig == null) {
-        prependConfig = new PrependConfig();
-      }
-      if (antoraIncludeAdapter == null) {
-        antoraIncludeAdapter = new AntoraIncludeAdapter();
-      }
-      if (attributesRetriever == null) {
-        attributesRetriever = new AttributesRetriever();
-      }
-
-      return asciidoctorJRuby;
+      /* create the extensions here, as they call service loader things */
+      return new PooledAsciidoctor(asciidoctorJRuby);
     } finally {
       Thread.currentThread().setContextClassLoader(oldCl);
     }
 
   }
 
-  /**
-   * Calculate a hash for the extensions.
-   * Hash will change if the project has been changed, of the contents of files have changed.
-   * This will also include all files in subdirectories of the extension when creating the hash.
-   */
-  private String calcMd(String projectBasePath, List<String> extensions) {
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      md.update(projectBasePath.getBytes(StandardCharsets.UTF_8));
-      List<Path> folders = new ArrayList<>();
-      for (String s : extensions) {
-        try {
-          try (InputStream is = new FileInputStream(s)) {
-            md.update(IOUtils.toByteArray(is));
-          }
-          Path parent = FileSystems.getDefault().getPath(s).getParent();
-          if (!folders.contains(parent)) {
-            folders.add(parent);
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, Files::isDirectory)) {
-              for (Path p : stream) {
-                scanForRubyFiles(p, md);
-              }
-            }
-          }
-        } catch (IOException e) {
-          throw new RuntimeException("unable to read file", e);
-        }
-      }
-      byte[] mdbytes = md.digest();
-      StringBuilder sb = new StringBuilder();
-      for (byte mdbyte : mdbytes) {
-        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
-      }
-      return sb.toString();
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("unknown hash", e);
-    }
-  }
-
-  private void scanForRubyFiles(Path path, MessageDigest md) throws IOException {
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-      for (Path p : stream) {
-        if (Files.isDirectory(p)) {
-          scanForRubyFiles(p, md);
-        }
-        if (Files.isRegularFile(p) && Files.isReadable(p)) {
-          try (InputStream is = Files.newInputStream(p)) {
-            md.update(IOUtils.toByteArray(is));
-          }
-        }
-      }
-    }
-  }
-
   private void notify(ByteArrayOutputStream boasOut, ByteArrayOutputStream boasErr, List<LogRecord> logRecords) {
     notify(boasOut, boasErr, logRecords,
       !AsciiDocApplicationSettings.getInstance().getAsciiDocPreviewSettings().isShowAsciiDocWarningsAndErrorsInEditor());
@@ -751,41 +796,10 @@ public class AsciiDocWrapper {
   @NotNull
   public static @Language("asciidoc")
   String config(VirtualFile currentFile, Project project) {
-    StringBuilder tempContent = new StringBuilder();
-    Collection<VirtualFile> roots = AsciiDocUtil.getRoots(project);
-    if (currentFile != null) {
-      VirtualFile folder = currentFile.getParent();
-      if (folder != null) {
-        while (true) {
-          for (String configName : new String[]{".asciidoctorconfig", ".asciidoctorconfig.adoc"}) {
-            VirtualFile configFile = folder.findChild(configName);
-            if (configFile != null &&
-              !currentFile.equals(configFile)) {
-              final VirtualFile folderFinal = folder;
-              AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
-                Document config = FileDocumentManager.getInstance().getDocument(configFile);
-                if (config != null) {
-                  // TODO: for traceability add current file name as a comment
-                  // prepend the new config, followed by two newlines to avoid sticking-together content
-                  tempContent.insert(0, "\n\n");
-                  tempContent.insert(0, config.getText());
-                  // prepend the location of the config file
-                  tempContent.insert(0, ":asciidoctorconfigdir: " + folderFinal.getCanonicalPath() + "\n\n");
-                }
-              });
-            }
-          }
-          if (roots.contains(folder)) {
-            break;
-          }
-          folder = folder.getParent();
-          if (folder == null) {
-            break;
-          }
-        }
-      }
+    if (currentFile == null) {
+      return "";
     }
-    return tempContent.toString();
+    return AsciiDocConfigCache.getInstance(project).config(currentFile);
   }
 
   @FunctionalInterface
@@ -802,6 +816,10 @@ public class AsciiDocWrapper {
   }
 
   public String render(@Language("asciidoc") String text, String config, List<String> extensions, Notifier notifier) {
+    return render(text, config, extensions, notifier, getPreviewFileType());
+  }
+
+  public static FileType getPreviewFileType() {
     final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
     FileType fileType;
     if (settings.getAsciiDocPreviewSettings().getHtmlPanelProviderInfo().getClassName().equals(AsciiDocJCEFHtmlPanelProvider.class.getName())) {
@@ -809,7 +827,18 @@ public class AsciiDocWrapper {
     } else {
       fileType = FileType.JAVAFX;
     }
-    return render(text, config, extensions, notifier, fileType);
+    return fileType;
+  }
+
+  /**
+   * Render the document to collect the messages Asciidoctor logs, for example to show warnings and errors in the editor.
+   * Re-uses the result of a previous render of the same content, even if that render wrote its images to a different folder.
+   */
+  public List<LogRecord> collectLogRecords(@Language("asciidoc") String text, String config, List<String> extensions) {
+    List<LogRecord> logRecords = new ArrayList<>();
+    render(text, config, extensions, (boasOut, boasErr, lr) -> logRecords.addAll(lr), getPreviewFileType(), true,
+      AsciiDocRenderScheduler.Priority.ANNOTATOR);
+    return logRecords;
   }
 
   public String render(@Language("asciidoc") String text,
@@ -817,6 +846,34 @@ public class AsciiDocWrapper {
                        List<String> extensions,
                        Notifier notifier,
                        FileType format) {
+    return render(text, config, extensions, notifier, format,
+      format == FileType.BROWSER ? AsciiDocRenderScheduler.Priority.BROWSER : AsciiDocRenderScheduler.Priority.PREVIEW);
+  }
+
+  /**
+   * @param priority decides the order in which conversions run when more conversions are requested than can run in parallel
+   */
+  public String render(@Language("asciidoc") String text,
+                       String config,
+                       List<String> extensions,
+                       Notifier notifier,
+                       FileType format,
+                       AsciiDocRenderScheduler.Priority priority) {
+    return render(text, config, extensions, notifier, format, false, priority);
+  }
+
+  /**
+   * @param anyImagesPath if a cached result can be used that has been rendered with a different images path.
+   *                      Use this if the caller doesn't use the HTML, as the images in the other path might have been deleted already.
+   */
+  @SuppressWarnings("checkstyle:ParameterNumber")
+  private String render(@Language("asciidoc") String text,
+                        String config,
+                        List<String> extensions,
+                        Notifier notifier,
+                        FileType format,
+                        boolean anyImagesPath,
+                        AsciiDocRenderScheduler.Priority priority) {
     VirtualFile springRestDocsSnippets = findSpringRestDocSnippets(
       project,
       LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir)
@@ -827,33 +884,58 @@ public class AsciiDocWrapper {
     );
     Collection<AttributeDeclaration> attributes = populateAntoraAttributes(project, fileBaseDir, antoraModuleDir);
     attributes.addAll(populateDocumentAttributes(fileBaseDir, name));
-    lock();
+    // in dumb mode some references can't be resolved, therefore don't cache those results
+    String cacheKey = DumbService.isDumb(project) ? null : renderCacheKey(text, config, extensions, format, springRestDocsSnippets, attributes);
+    AsciiDocRenderCache.Entry cached = cacheKey != null ? AsciiDocRenderCache.get(cacheKey) : null;
+    if (cached != null && (anyImagesPath || Objects.equals(cached.imagesPath(), imagesPath))) {
+      this.attributes = cached.attributes();
+      notifier.notify(new ByteArrayOutputStream(), new ByteArrayOutputStream(), cached.logRecords());
+      return cached.html();
+    }
+    // as for exports, documents in Antora modules render in-process, see convertTo()
+    List<String> workerSetup = antoraModuleDir == null && AsciiDocWorkerPool.isEnabled() ? workerSetup(extensions, springRestDocsSnippets != null, format) : null;
+    int timeout = lock();
+    AsciiDocRenderScheduler.Ticket ticket = null;
     try {
+      ticket = AsciiDocRenderScheduler.getInstance().acquire(priority, timeout);
       if (shutdown) {
         throw new ProcessCanceledException();
       }
+      if (workerSetup != null) {
+        return renderInWorker(text, config, workerSetup, getDefaultOptions(format, springRestDocsSnippets, attributes), notifier, cacheKey);
+      }
       CollectingLogHandler logHandler = new CollectingLogHandler();
       ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
       ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
       // SystemOutputHijacker.register(new PrintStream(boasOut), new PrintStream(boasErr));
+      PooledAsciidoctor instance = null;
+      InstancePool[] pool = new InstancePool[1];
       try {
-        Asciidoctor asciidoctor = initWithExtensions(extensions, springRestDocsSnippets != null, format);
+        instance = initWithExtensions(extensions, springRestDocsSnippets != null, format, pool, timeout);
+        Asciidoctor asciidoctor = instance.asciidoctor;
         asciidoctor.registerLogHandler(logHandler);
-        prependConfig.setConfig(config);
-        antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+        instance.prependConfig.setConfig(config);
+        instance.antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
         AntoraReferenceAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
         try {
-          return "<div id=\"content\"" + (antoraModuleDir != null ? " class=\"doc\"" : "") + ">\n" + asciidoctor.convert(text,
+          String result = "<div id=\"content\"" + (antoraModuleDir != null ? " class=\"doc\"" : "") + ">\n" + asciidoctor.convert(text,
             getDefaultOptions(format, springRestDocsSnippets, attributes)) + "\n</div>";
+          this.attributes = instance.attributesRetriever.getAttributes();
+          if (cacheKey != null) {
+            AsciiDocRenderCache.put(cacheKey, new AsciiDocRenderCache.Entry(result, this.attributes, logHandler.getLogRecords(), imagesPath));
+          }
+          return result;
         } finally {
-          prependConfig.setConfig("");
-          antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          instance.prependConfig.setConfig("");
+          instance.antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          AntoraReferenceAdapter.setAntoraDetails(null, null, null, null);
           asciidoctor.unregisterLogHandler(logHandler);
         }
       } catch (ProcessCanceledException ex) {
         // ProcessCanceledException: reading interrupted by event dispatch thread
         throw ex;
       } catch (Exception | AssertionError | ServiceConfigurationError ex) {
+        AsciiDocRenderCancellation.rethrowIfCanceled(ex);
         boolean exceptionInLog = checkIfExceptionShouldAppearInLog(ex);
         if (exceptionInLog) {
           logHandler.log(new LogRecord(Severity.FATAL, ex.getMessage()));
@@ -885,14 +967,39 @@ public class AsciiDocWrapper {
         response.append("</div>");
         return response.toString();
       } finally {
+        release(instance, pool[0]);
         // SystemOutputHijacker.deregister();
         notifier.notify(boasOut, boasErr, logHandler.getLogRecords());
       }
     } finally {
+      if (ticket != null) {
+        ticket.close();
+      }
       unlock();
     }
   }
 
+  /**
+   * Key for the {@link AsciiDocRenderCache} covering all inputs of a render.
+   * Changes to files on disk (like included files or extensions) increase the VFS modification count and therefore change the key.
+   */
+  private String renderCacheKey(String text, String config, List<String> extensions, FileType format,
+                                @Nullable VirtualFile springRestDocsSnippets, Collection<AttributeDeclaration> attributes) {
+    AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
+    StringBuilder attributesKey = new StringBuilder();
+    for (AttributeDeclaration attribute : attributes) {
+      attributesKey.append(attribute.getAttributeName()).append('=').append(attribute.getAttributeValue())
+        .append(attribute.isSoft() ? "@" : "").append('\n');
+    }
+    return AsciiDocRenderCache.key(text, config, extensions, format, root,
+      settings.getExtensionsEnabled(project, root),
+      settings.getAsciiDocPreviewSettings().getSafeMode(project),
+      settings.getAsciiDocPreviewSettings().hashCode(),
+      springRestDocsSnippets != null ? springRestDocsSnippets.getPath() : null,
+      attributesKey,
+      VirtualFileManager.getInstance().getModificationCount());
+  }
+
   /**
    * Don't log full exception and stack trace to IDE's log for well known exceptions that already include enough content.
    */
@@ -912,8 +1019,8 @@ public class AsciiDocWrapper {
   }
 
   private static int validateAccess() {
-    /* This class will lock on AsciiDoc.java so that only one instance of Asciidoctor is running at any time. This
-    allows re-using the instances that are expensive to create (both in terms of memory and cpu seconds).
+    /* This class will take a lock and wait for a pooled instance of Asciidoctor, so that only a limited number of instances
+    is running at any time. This allows re-using the instances that are expensive to create (both in terms of memory and cpu seconds).
     When rendering an AsciiDoc document, this requires read-access to document for example to resolve Antora information
     or includes.
     By ensuring no previous read or write lock exists, this avoids the following dead-lock situation:
@@ -953,8 +1060,16 @@ public class AsciiDocWrapper {
     );
     Collection<AttributeDeclaration> attributes = populateAntoraAttributes(project, fileBaseDir, antoraModuleDir);
 
-    lock();
+    // Antora references and includes need access to the project, therefore they are only available in-process
+    List<String> workerSetup = antoraModuleDir == null && AsciiDocWorkerPool.isEnabled() ? workerSetup(extensions, springRestDocsSnippets != null, format) : null;
+    if (workerSetup != null) {
+      return convertInWorker(file, config, workerSetup, getExportOptions(getDefaultOptions(format, springRestDocsSnippets, attributes), format));
+    }
+
+    int timeout = lock();
+    AsciiDocRenderScheduler.Ticket ticket = null;
     try {
+      ticket = AsciiDocRenderScheduler.getInstance().acquire(AsciiDocRenderScheduler.Priority.BACKGROUND, timeout);
       if (shutdown) {
         throw new ProcessCanceledException();
       }
@@ -962,10 +1077,13 @@ public class AsciiDocWrapper {
       ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
       ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
       // SystemOutputHijacker.register(new PrintStream(boasOut), new PrintStream(boasErr));
+      PooledAsciidoctor instance = null;
+      InstancePool[] pool = new InstancePool[1];
       try {
-        Asciidoctor asciidoctor = initWithExtensions(extensions, springRestDocsSnippets != null, format);
-        prependConfig.setConfig(config);
-        antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+        instance = initWithExtensions(extensions, springRestDocsSnippets != null, format, pool, timeout);
+        Asciidoctor asciidoctor = instance.asciidoctor;
+        instance.prependConfig.setConfig(config);
+        instance.antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
         AntoraReferenceAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
         asciidoctor.registerLogHandler(logHandler);
         try {
@@ -973,15 +1091,18 @@ public class AsciiDocWrapper {
           if (indicator == null || !indicator.isCanceled()) {
             asciidoctor.convertFile(file, getExportOptions(
               getDefaultOptions(format, springRestDocsSnippets, attributes), format));
+            this.attributes = instance.attributesRetriever.getAttributes();
           }
         } finally {
-          prependConfig.setConfig("");
-          antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          instance.prependConfig.setConfig("");
+          instance.antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          AntoraReferenceAdapter.setAntoraDetails(null, null, null, null);
           asciidoctor.unregisterLogHandler(logHandler);
         }
       } catch (ProcessCanceledException ex) {
         throw ex;
       } catch (Exception | ServiceConfigurationError ex) {
+        AsciiDocRenderCancellation.rethrowIfCanceled(ex);
         if (ex instanceof AsciidoctorCoreException ac && (ac.getCause() instanceof IOError io)) {
           ApplicationManager.getApplication().invokeLater(() -> {
             String message = io.getMessage();
@@ -1012,23 +1133,157 @@ public class AsciiDocWrapper {
         }
         return false;
       } finally {
+        release(instance, pool[0]);
         // SystemOutputHijacker.deregister();
         Notifier notifier = this::notifyAlways;
         notifier.notify(boasOut, boasErr, logHandler.getLogRecords());
       }
     } finally {
+      if (ticket != null) {
+        ticket.close();
+      }
       unlock();
     }
     return true;
   }
 
-  private static void lock() {
+  /**
+   * Libraries and scripts a worker process needs to load for a conversion, see {@link #initWithExtensions}.
+   *
+   * @return <code>null</code> if the conversion can't run in a worker, for example because it needs Java extensions
+   */
+  @Nullable
+  private List<String> workerSetup(List<String> extensions, boolean springRestDocs, FileType format) {
+    AsciiDocApplicationSettings asciiDocApplicationSettings = AsciiDocApplicationSettings.getInstance();
+    boolean extensionsEnabled = Boolean.TRUE.equals(asciiDocApplicationSettings.getExtensionsEnabled(project, root));
+    List<String> setup = new ArrayList<>();
+    if (format == FileType.JCEF || format == FileType.BROWSER || format == FileType.HTML) {
+      setup.add("require:asciidoctor-tabs");
+    }
+    boolean krokiEnabled = asciiDocApplicationSettings.getAsciiDocPreviewSettings().isKrokiEnabled();
+    boolean diagramPresent = isDiagramPresent();
+    if (!krokiEnabled && diagramPresent) {
+      setup.add("require:asciidoctor-diagram");
+    } else if (!diagramPresent) {
+      setup.add("resource:/diagram-placeholder.rb");
+    }
+    if (format == FileType.JAVAFX || format == FileType.JCEF) {
+      setup.add("resource:/sourceline-treeprocessor.rb");
+      setup.add("treeprocessor:SourceLineTreeProcessor");
+    }
+    if (format == FileType.JAVAFX && diagramPresent) {
+      setup.add("resource:/plantuml-png-patch.rb");
+    } else if (format == FileType.JCEF && diagramPresent) {
+      setup.add("resource:/plantuml-patch.rb");
+    }
+    if (springRestDocs) {
+      setup.add("resource:/springrestdoc-operation-blockmacro.rb");
+    }
+    if (krokiEnabled) {
+      setup.add("resource:/kroki-extension.rb");
+    }
+    if (format.backend.equals("html5") && asciiDocApplicationSettings.getAsciiDocPreviewSettings().isEnableBuiltInMermaid()) {
+      setup.add("resource:/mermaid-extension.rb");
+    }
+    if (extensionsEnabled) {
+      for (String extension : extensions) {
+        if (extension.toLowerCase(Locale.ROOT).endsWith(".rb")) {
+          setup.add("require:" + extension);
+        } else if (extension.toLowerCase(Locale.ROOT).endsWith(".jar")) {
+          return null;
+        }
+      }
+    }
+    return setup;
+  }
+
+  private boolean convertInWorker(File file, String config, List<String> setup, Options options) {
+    ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
+    List<LogRecord> logRecords = new ArrayList<>();
+    try {
+      AsciiDocWorkerProtocol.Response response = executeInWorker(AsciiDocWorkerProtocol.CONVERT_FILE, file.getAbsolutePath(), config, setup, options, logRecords);
+      if (response.status() != AsciiDocWorkerProtocol.STATUS_OK) {
+        boasErr.writeBytes(("unable to render AsciiDoc document<p>" + response.output()
+          + "<p>(the full exception stack trace is available in the file asciidoc-worker.log in the IDE's log folder)").getBytes(StandardCharsets.UTF_8));
+        return false;
+      }
+      return true;
+    } finally {
+      Notifier notifier = this::notifyAlways;
+      notifier.notify(boasOut, boasErr, logRecords);
+    }
+  }
+
+  private String renderInWorker(String text, String config, List<String> setup, Options options, Notifier notifier, @Nullable String cacheKey) {
+    List<LogRecord> logRecords = new ArrayList<>();
+    try {
+      AsciiDocWorkerProtocol.Response response = executeInWorker(AsciiDocWorkerProtocol.CONVERT_TEXT, text, config, setup, options, logRecords);
+      if (response.status() != AsciiDocWorkerProtocol.STATUS_OK) {
+        return "<div id=\"content\"><p>unable to render AsciiDoc document</p><p style='white-space: pre-wrap;'>" + StringEscapeUtils.escapeHtml4(response.output())
+          + "<p>(the full exception stack trace is available in the file asciidoc-worker.log in the IDE's log folder)</div>";
+      }
+      String result = "<div id=\"content\">\n" + response.output() + "\n</div>";
+      if (cacheKey != null) {
+        AsciiDocRenderCache.put(cacheKey, new AsciiDocRenderCache.Entry(result, this.attributes, logRecords, imagesPath));
+      }
+      return result;
+    } finally {
+      notifier.notify(new ByteArrayOutputStream(), new ByteArrayOutputStream(), logRecords);
+    }
+  }
+
+  /**
+   * Run a conversion in a worker process, adding the messages Asciidoctor logged to the log records.
+   * A failure to communicate with the worker is reported as a response with the status {@link AsciiDocWorkerProtocol#STATUS_ERROR}.
+   */
+  private AsciiDocWorkerProtocol.Response executeInWorker(int type, String source, String config, List<String> setup, Options options, List<LogRecord> logRecords) {
+    Map<String, Object> map = new HashMap<>(options.map());
+    if (map.get(Options.ATTRIBUTES) instanceof Attributes attrs) {
+      map.put(Options.ATTRIBUTES, attrs.map());
+    }
+    AsciiDocWorkerProtocol.Response response;
+    try {
+      response = AsciiDocWorkerPool.execute(setup, new AsciiDocWorkerProtocol.Request(type, source, config, map));
+    } catch (IOException e) {
+      LOG.warn("unable to render AsciiDoc document in worker", e);
+      response = new AsciiDocWorkerProtocol.Response(AsciiDocWorkerProtocol.STATUS_ERROR,
+        e.getClass().getCanonicalName() + ": " + e.getMessage(), Collections.emptyMap(), Collections.emptyList());
+    }
+    for (AsciiDocWorkerProtocol.LogEntry entry : response.logEntries()) {
+      Cursor cursor = entry.file() != null || entry.lineNumber() > 0 ? new AsciiDocCursor(entry.file(), entry.path(), entry.dir(), entry.lineNumber()) : null;
+      logRecords.add(new LogRecord(Severity.valueOf(entry.severity()), cursor, entry.message()));
+    }
+    if (response.status() == AsciiDocWorkerProtocol.STATUS_OK) {
+      this.attributes = response.attributes();
+    } else {
+      LOG.warn("unable to render AsciiDoc document in worker: " + response.output());
+      logRecords.add(new LogRecord(Severity.FATAL, response.output()));
+    }
+    return response;
+  }
+
+  /**
+   * Acquire the shared render lock.
+   *
+   * @return the timeout in seconds to be used when waiting for an instance, or zero to wait without a timeout.
+   */
+  private static int lock() {
     int timeout = validateAccess();
+    acquire(RENDER_LOCK.readLock(), timeout);
+    return timeout;
+  }
+
+  private static void unlock() {
+    RENDER_LOCK.readLock().unlock();
+  }
+
+  private static void acquire(Lock lock, int timeout) {
     if (timeout == 0) {
-      LOCK.lock();
+      lock.lock();
     } else {
       try {
-        if (!LOCK.tryLock(timeout, TimeUnit.SECONDS)) {
+        if (!lock.tryLock(timeout, TimeUnit.SECONDS)) {
           LOG.warn("unable to acquire lock after timeout");
           throw new ProcessCanceledException(new RuntimeException("unable to acquire lock after timeout"));
         }
@@ -1038,8 +1293,17 @@ public class AsciiDocWrapper {
     }
   }
 
-  private static void unlock() {
-    LOCK.unlock();
+  private static void acquire(Semaphore semaphore, int timeout) {
+    try {
+      if (timeout == 0) {
+        semaphore.acquire();
+      } else if (!semaphore.tryAcquire(timeout, TimeUnit.SECONDS)) {
+        LOG.warn("unable to acquire Asciidoctor instance after timeout");
+        throw new ProcessCanceledException(new RuntimeException("unable to acquire Asciidoctor instance after timeout"));
+      }
+    } catch (InterruptedException e) {
+      throw new ProcessCanceledException(e);
+    }
   }
 
   public static Collection<AttributeDeclaration> populateAntoraAttributes(@NotNull Project project, File fileBaseDir, VirtualFile
@@ -1401,12 +1665,12 @@ public class AsciiDocWrapper {
     return opts.build();
   }
 
+  /**
+   * Attributes of the last successful render of this document.
+   * Will be empty if the document hasn't been rendered yet, or if the format doesn't support retrieving attributes.
+   */
   public Map<String, String> getAttributes() {
-    if (attributesRetriever == null) {
-      // might have failed if Asciidoctor initialization has failed
-      return Collections.emptyMap();
-    }
-    return attributesRetriever.getAttributes();
+    return attributes;
   }
 
   public enum FileType {
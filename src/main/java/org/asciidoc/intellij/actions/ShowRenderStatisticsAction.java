@@ -0,0 +1,39 @@
+package org.asciidoc.intellij.actions;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAware;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.asciidoc.intellij.AsciiDocRenderScheduler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Show how many conversions are waiting and running, and how long they waited for a slot.
+ * Helps to find out why the preview is slow to update, for example during a long-running export.
+ */
+public class ShowRenderStatisticsAction extends AnAction implements DumbAware {
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    StringBuilder content = new StringBuilder();
+    for (AsciiDocRenderScheduler.Statistics statistics : AsciiDocRenderScheduler.getInstance().getStatistics()) {
+      content.append(AsciiDocBundle.message("asciidoc.render.statistics.line",
+        statistics.priority().name().toLowerCase(Locale.ROOT), statistics.waiting(), statistics.running(), statistics.completed(),
+        statistics.averageWaitMillis(), statistics.maxWaitMillis())).append("<br/>");
+    }
+    Notifications.Bus.notify(new Notification("asciidoctor", AsciiDocBundle.message("asciidoc.render.statistics.title"),
+      content.toString(), NotificationType.INFORMATION), event.getProject());
+  }
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+}
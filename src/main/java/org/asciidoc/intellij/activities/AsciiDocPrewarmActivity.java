@@ -0,0 +1,131 @@
+package org.asciidoc.intellij.activities;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.ProjectActivity;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.JavaCoroutines;
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.asciidoc.intellij.AsciiDocExtensionService;
+import org.asciidoc.intellij.AsciiDocRenderScheduler;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Creates the Asciidoctor instance for the preview in the background when a project with AsciiDoc content opens.
+ * Creating the instance and the first conversions take several seconds, which the user would otherwise notice in the first preview.
+ * Can be disabled with the registry key <code>asciidoc.render.prewarm</code>.
+ */
+public class AsciiDocPrewarmActivity implements ProjectActivity, DumbAware {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocPrewarmActivity.class);
+
+  /**
+   * Some typical content to let the JRuby JIT compile the common parts of the converter.
+   */
+  @Language("asciidoc")
+  private static final String SAMPLE = """
+    = Title
+    :toc:
+
+    Preamble with *bold*, _italic_ and `mono` text and a https://asciidoctor.org[link].
+
+    == Section
+
+    * item
+    ** nested item
+
+    . first
+    . second
+
+    [source,java]
+    ----
+    public class Sample {
+    }
+    ----
+
+    |===
+    |Column 1 |Column 2
+
+    |Cell
+    |Cell
+    |===
+
+    NOTE: An admonition.
+    """;
+
+  @Override
+  public @Nullable Object execute(@NotNull Project project, @NotNull Continuation<? super Unit> continuation) {
+    return JavaCoroutines.suspendJava(jc -> {
+      if (Registry.is("asciidoc.render.prewarm", true)
+        && !ApplicationManager.getApplication().isUnitTestMode()
+        && !ApplicationManager.getApplication().isHeadlessEnvironment()) {
+        new Task.Backgroundable(project, AsciiDocBundle.message("asciidoc.prewarm.task"), true) {
+          @Override
+          public void run(@NotNull ProgressIndicator indicator) {
+            prewarm(project, indicator);
+          }
+        }.queue();
+      }
+      jc.resume(Unit.INSTANCE);
+    }, continuation);
+  }
+
+  private static void prewarm(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+    VirtualFile file = DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+      if (project.isDisposed()) {
+        return null;
+      }
+      Collection<VirtualFile> files = FileTypeIndex.getFiles(AsciiDocFileType.INSTANCE, GlobalSearchScope.projectScope(project));
+      return files.isEmpty() ? null : files.iterator().next();
+    });
+    if (file == null) {
+      // no AsciiDoc content in this project
+      return;
+    }
+    indicator.checkCanceled();
+    Thread thread = Thread.currentThread();
+    int priority = thread.getPriority();
+    thread.setPriority(Thread.MIN_PRIORITY);
+    try {
+      // use the folder of an existing file, so that the instance has the same extensions as the preview will have
+      AsciiDocWrapper wrapper = new AsciiDocWrapper(project, file.getParent(), null, file.getName());
+      List<String> extensions = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class).getExtensions(project);
+      // the first conversion creates the instance, the following ones warm up the JIT
+      for (int i = 0; i < 3; ++i) {
+        indicator.checkCanceled();
+        if (project.isDisposed()) {
+          return;
+        }
+        // vary the content, so that the render result cache doesn't serve the next round
+        wrapper.render(SAMPLE + "\n" + i, "", extensions, (boasOut, boasErr, logRecords) -> {
+        }, AsciiDocWrapper.getPreviewFileType(), AsciiDocRenderScheduler.Priority.BACKGROUND);
+      }
+    } catch (ProcessCanceledException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      // the preview will report the problem once the user opens it
+      LOG.info("unable to pre-warm Asciidoctor", e);
+    } finally {
+      thread.setPriority(priority);
+    }
+  }
+
+}
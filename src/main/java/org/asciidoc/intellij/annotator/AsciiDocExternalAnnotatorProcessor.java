@@ -96,9 +96,7 @@ implements DumbAware {
         tempImagesPath, name);
       annotationResult.setDocname(new File(fileBaseDir, name).getAbsolutePath());
 
-      List<LogRecord> logRecords = new ArrayList<>();
-      asciiDocWrapper.render(collectedInfo.getContent(), collectedInfo.getConfig(), collectedInfo.getExtensions(), (boasOut, boasErr, lr)
-        -> logRecords.addAll(lr));
+      List<LogRecord> logRecords = asciiDocWrapper.collectLogRecords(collectedInfo.getContent(), collectedInfo.getConfig(), collectedInfo.getExtensions());
 
       // do all expensive post-processing of log messages in the doAnnotate() phase,
       // this is necessary to process nested includes
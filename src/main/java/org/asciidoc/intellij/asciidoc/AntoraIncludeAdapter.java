@@ -13,6 +13,7 @@ import com.intellij.psi.search.GlobalSearchScope;
 import org.apache.commons.lang3.StringUtils;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoc.intellij.threading.AsciiDocRenderCancellation;
 import org.asciidoctor.ast.Document;
 import org.asciidoctor.extension.IncludeProcessor;
 import org.asciidoctor.extension.PreprocessorReader;
@@ -45,6 +46,8 @@ public class AntoraIncludeAdapter extends IncludeProcessor {
 
   @Override
   public boolean handles(String target) {
+    // called for each include, therefore a good place to stop a conversion that is no longer needed
+    AsciiDocRenderCancellation.checkCanceled();
     if (Objects.equals(recursionPrevention, target)) {
       recursionPrevention = null;
       return false;
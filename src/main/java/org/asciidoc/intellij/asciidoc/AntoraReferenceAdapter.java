@@ -13,6 +13,7 @@ import org.asciidoc.intellij.lexer.AsciiDocTokenTypes;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.psi.AttributeDeclaration;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoc.intellij.threading.AsciiDocRenderCancellation;
 import org.asciidoctor.jruby.ast.impl.PhraseNodeImpl;
 import org.jetbrains.annotations.NotNull;
 import org.jruby.RubyObject;
@@ -34,17 +35,22 @@ public class AntoraReferenceAdapter {
   private static final com.intellij.openapi.diagnostic.Logger LOG =
     com.intellij.openapi.diagnostic.Logger.getInstance(AntoraReferenceAdapter.class);
 
-  public static void setAntoraDetails(Project project, VirtualFile antoraModuleDir, File fileBaseDir, String name) {
-    AntoraReferenceAdapter.project = project;
-    AntoraReferenceAdapter.antoraModuleDir = antoraModuleDir;
-    AntoraReferenceAdapter.fileBaseDir = fileBaseDir;
-    AntoraReferenceAdapter.name = name;
+  /**
+   * The Ruby converters call this class statically. As several documents can render in parallel on different threads,
+   * keep the details of the document that is currently rendered on this thread.
+   */
+  private static final ThreadLocal<AntoraDetails> DETAILS = new ThreadLocal<>();
+
+  private record AntoraDetails(Project project, VirtualFile antoraModuleDir, File fileBaseDir, String name) {
   }
 
-  private static Project project;
-  private static VirtualFile antoraModuleDir;
-  private static File fileBaseDir;
-  private static String name;
+  public static void setAntoraDetails(Project project, VirtualFile antoraModuleDir, File fileBaseDir, String name) {
+    if (antoraModuleDir == null) {
+      DETAILS.remove();
+    } else {
+      DETAILS.set(new AntoraDetails(project, antoraModuleDir, fileBaseDir, name));
+    }
+  }
 
   public static void convertInlineAnchor(RubyObject node) {
     convertAntora(node, "inline_anchor");
@@ -64,7 +70,14 @@ public class AntoraReferenceAdapter {
 
   @SuppressWarnings("checkstyle:MethodLength")
   public static void convertAntora(RubyObject node, String type) {
-    if (antoraModuleDir != null) {
+    // called for each reference and image during the conversion, therefore a good place to stop a conversion that is no longer needed
+    AsciiDocRenderCancellation.checkCanceled();
+    AntoraDetails details = DETAILS.get();
+    if (details != null) {
+      Project project = details.project();
+      VirtualFile antoraModuleDir = details.antoraModuleDir();
+      File fileBaseDir = details.fileBaseDir();
+      String name = details.name();
       PhraseNodeImpl phraseNode = new PhraseNodeImpl(node);
       if (type.equals("inline_image")) {
         String nodeType = phraseNode.getType();
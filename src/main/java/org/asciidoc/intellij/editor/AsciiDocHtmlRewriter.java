@@ -0,0 +1,139 @@
+package org.asciidoc.intellij.editor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Rewrites the HTML of a preview in a single pass: URLs of images, interactive SVGs and links,
+ * plus content added at the start of the head and at the end of the body.
+ * Replacing each match with <code>substring()</code> and searching again from the start would take quadratic time
+ * for documents with many images.
+ */
+public final class AsciiDocHtmlRewriter {
+
+  private static final String HEAD = "<head>";
+  private static final String BODY_END = "</body>";
+  private static final String IMG = "<img src=\"";
+  private static final String OBJECT = "<object ";
+  private static final String LINK = "<a ";
+
+  /**
+   * Type of the element that contains a URL.
+   */
+  public enum Kind {
+    /**
+     * The <code>src</code> attribute of an <code>img</code> element directly following the tag name.
+     */
+    IMAGE,
+    /**
+     * The <code>data</code> attribute of an <code>object</code> element, used for interactive SVGs.
+     */
+    OBJECT,
+    /**
+     * The <code>href</code> attribute of an <code>a</code> element.
+     */
+    LINK
+  }
+
+  @FunctionalInterface
+  public interface UrlRewriter {
+    /**
+     * @param url value of the attribute as it appears in the HTML
+     * @return new value of the attribute, or <code>null</code> to keep the URL
+     */
+    @Nullable
+    String rewrite(@NotNull Kind kind, @NotNull String url);
+  }
+
+  /**
+   * Keep all URLs, to only add content to the head and the body.
+   */
+  public static final UrlRewriter KEEP_URLS = (kind, url) -> null;
+
+  private AsciiDocHtmlRewriter() {
+  }
+
+  /**
+   * Rewrite the HTML.
+   *
+   * @param headStart content to add after each <code>&lt;head&gt;</code>, or <code>null</code>
+   * @param bodyEnd   content to add before each <code>&lt;/body&gt;</code>, or <code>null</code>
+   */
+  @NotNull
+  public static String rewrite(@NotNull String html, @NotNull UrlRewriter rewriter, @Nullable String headStart, @Nullable String bodyEnd) {
+    StringBuilder sb = new StringBuilder(html.length() + (headStart != null ? headStart.length() : 0)
+      + (bodyEnd != null ? bodyEnd.length() : 0) + html.length() / 16);
+    int copied = 0;
+    int pos = html.indexOf('<');
+    while (pos != -1) {
+      int next = pos + 1;
+      if (headStart != null && html.startsWith(HEAD, pos)) {
+        next = pos + HEAD.length();
+        sb.append(html, copied, next).append(headStart);
+        copied = next;
+      } else if (bodyEnd != null && html.startsWith(BODY_END, pos)) {
+        sb.append(html, copied, pos).append(bodyEnd);
+        copied = pos;
+        next = pos + BODY_END.length();
+      } else {
+        int start = -1;
+        Kind kind = null;
+        if (html.startsWith(IMG, pos)) {
+          start = pos + IMG.length();
+          kind = Kind.IMAGE;
+        } else if (html.startsWith(OBJECT, pos)) {
+          start = findAttribute(html, pos + OBJECT.length() - 1, " data=\"");
+          kind = Kind.OBJECT;
+        } else if (html.startsWith(LINK, pos)) {
+          start = findAttribute(html, pos + LINK.length() - 1, " href=\"");
+          kind = Kind.LINK;
+        }
+        if (start != -1) {
+          int end = replaceValue(html, start, kind, rewriter, sb, copied);
+          if (end != -1) {
+            copied = end;
+            next = end;
+          }
+        }
+      }
+      pos = html.indexOf('<', next);
+    }
+    sb.append(html, copied, html.length());
+    return sb.toString();
+  }
+
+  /**
+   * Find the start of the value of an attribute within the current tag.
+   *
+   * @param from position after the tag name, pointing to the whitespace before the first attribute
+   * @return position of the first character of the value, or <code>-1</code> if the tag doesn't have this attribute
+   */
+  private static int findAttribute(String html, int from, String attribute) {
+    // search only up to the end of the tag, as searching the rest of the HTML for each tag would take quadratic time again
+    for (int i = from; i < html.length() && html.charAt(i) != '>'; ++i) {
+      if (html.startsWith(attribute, i)) {
+        return i + attribute.length();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Pass the value starting at the given position to the rewriter, and append the HTML up to the end of the new value.
+   *
+   * @return position after the closing quote if the value has been replaced, otherwise <code>-1</code>
+   */
+  private static int replaceValue(String html, int start, Kind kind, UrlRewriter rewriter, StringBuilder sb, int copied) {
+    int end = html.indexOf('"', start);
+    if (end == -1) {
+      return -1;
+    }
+    String replacement = rewriter.rewrite(kind, html.substring(start, end));
+    if (replacement == null) {
+      return -1;
+    }
+    sb.append(html, copied, start).append(replacement).append('"');
+    return end + 1;
+  }
+
+}
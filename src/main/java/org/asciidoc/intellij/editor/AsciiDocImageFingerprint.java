@@ -0,0 +1,159 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MD5 sums of the images shown in the preview. The previews add the sum to the URL of each image, so that the browser
+ * loads an image again once its content changes.
+ * Reading each image on every render is slow for documents with many images, therefore the sum is kept in memory
+ * as long as the size and the modification time of the file don't change.
+ * Images generated by Asciidoctor Diagram are written outside the VFS, therefore the size and modification time are always checked.
+ */
+@Service
+public final class AsciiDocImageFingerprint implements Disposable {
+
+  private static final int MAX_ENTRIES = 2000;
+
+  private record Entry(long length, long lastModified, @NotNull String md5) {
+  }
+
+  private final Map<String, Entry> fingerprints = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  public AsciiDocImageFingerprint() {
+    ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        invalidate(events);
+      }
+    });
+  }
+
+  public static AsciiDocImageFingerprint getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocImageFingerprint.class);
+  }
+
+  /**
+   * Return the MD5 sum of a file as a hex string.
+   *
+   * @return <code>null</code> if the file doesn't exist or can't be read
+   */
+  public @Nullable String getFingerprint(@NotNull String file) {
+    Path path;
+    try {
+      path = Path.of(file).toAbsolutePath().normalize();
+    } catch (InvalidPathException e) {
+      return null;
+    }
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return null;
+    }
+    if (!attributes.isRegularFile()) {
+      return null;
+    }
+    String key = FileUtil.toSystemIndependentName(path.toString());
+    long length = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    synchronized (fingerprints) {
+      Entry entry = fingerprints.get(key);
+      if (entry != null && entry.length() == length && entry.lastModified() == lastModified) {
+        return entry.md5();
+      }
+    }
+    String md5 = calculateMd5(path);
+    if (md5 != null) {
+      synchronized (fingerprints) {
+        fingerprints.put(key, new Entry(length, lastModified, md5));
+      }
+    }
+    return md5;
+  }
+
+  private static @Nullable String calculateMd5(Path path) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("MD5");
+      try (InputStream is = Files.newInputStream(path)) {
+        int nread;
+        byte[] dataBytes = new byte[10240];
+        while ((nread = is.read(dataBytes)) != -1) {
+          md.update(dataBytes, 0, nread);
+        }
+      }
+      byte[] mdbytes = md.digest();
+      StringBuilder sb = new StringBuilder();
+      for (byte mdbyte : mdbytes) {
+        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException | IOException e) {
+      return null;
+    }
+  }
+
+  private void invalidate(@NotNull List<? extends VFileEvent> events) {
+    synchronized (fingerprints) {
+      if (fingerprints.isEmpty()) {
+        return;
+      }
+      // in addition to the checks of size and modification time, as a file system with a low resolution
+      // of the modification time might not show a change made within the same second
+      for (VFileEvent event : events) {
+        String path = event.getPath();
+        boolean removed = event instanceof VFileDeleteEvent;
+        if (event instanceof VFileMoveEvent moveEvent) {
+          path = moveEvent.getOldPath();
+          removed = true;
+        } else if (event instanceof VFilePropertyChangeEvent propertyChangeEvent && propertyChangeEvent.isRename()) {
+          path = propertyChangeEvent.getOldPath();
+          removed = true;
+        }
+        fingerprints.remove(path);
+        // the listener runs on the EDT, therefore scan the entries only when a folder is deleted, moved or renamed
+        VirtualFile file = event.getFile();
+        if (removed && file != null && file.isDirectory()) {
+          String prefix = path + "/";
+          fingerprints.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void dispose() {
+    synchronized (fingerprints) {
+      fingerprints.clear();
+    }
+  }
+
+}
@@ -0,0 +1,319 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.psi.AsciiDocAttributeDeclaration;
+import org.asciidoc.intellij.psi.AsciiDocBlockId;
+import org.asciidoc.intellij.psi.AsciiDocFile;
+import org.asciidoc.intellij.psi.AsciiDocSection;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Re-renders only the top-level sections of a document that changed since the previous render, and re-uses the HTML
+ * of the other sections. Each changed section is rendered with the document header and all attribute entries before it,
+ * while all other lines are blanked out so that the line numbers for the source-line mapping stay the same.
+ * <p>
+ * Falls back to a full render when the header or preamble changed, or when the document uses features that
+ * depend on the content of other sections like counters, footnotes, section numbers, numbered captions, includes
+ * or conditionals.
+ * Cross-references and a table of contents force a full render when the headings or IDs of the document changed,
+ * or when a changed section contains a cross-reference.
+ * <p>
+ * Not thread-safe, each preview keeps its own instance and renders on a single thread.
+ */
+public class AsciiDocIncrementalRenderer {
+
+  private static final String SECTION_START = "<div class=\"sect1";
+  private static final String CONTENT_END = "\n</div>";
+
+  /**
+   * Features that depend on the content of other sections. A document using them always needs a full render.
+   * Block titles and captions are included, as the captions of figures, tables, examples and listings are numbered
+   * throughout the document.
+   */
+  private static final Pattern REQUIRES_FULL_RENDER = Pattern.compile(
+    "\\{counter2?:|footnote(ref)?:|sectnums|leveloffset|include::|^ifn?def::|^ifeval::|^\\[index]|^\\[bibliography]"
+      + "|^\\.[^.\\s]|caption[:=]",
+    Pattern.MULTILINE);
+
+  private static final Pattern CROSS_REFERENCE = Pattern.compile("<<|xref:");
+
+  private static final Pattern TABLE_OF_CONTENTS = Pattern.compile("^:toc", Pattern.MULTILINE);
+
+  /**
+   * Render more sections than this one by one, and a full render is faster.
+   */
+  private static final int MAX_CHANGED_SECTIONS = 2;
+
+  private String previousPrefix;
+  private List<String> previousSignature = Collections.emptyList();
+  private String prefixHtml;
+  private Map<String, String> sectionHtml = new HashMap<>();
+
+  /**
+   * Text for the top-level sections of a document.
+   *
+   * @param prefix    everything before the first top-level section, including the header and the preamble
+   * @param chunks    for each top-level section the text to render it on its own
+   * @param signature headings and IDs of the document that other sections might refer to
+   */
+  record Split(String prefix, List<String> chunks, List<String> signature, boolean hasCrossReferences) {
+  }
+
+  /**
+   * Forget all previously rendered sections, for example when included files or the settings changed.
+   */
+  public void reset() {
+    previousPrefix = null;
+    previousSignature = Collections.emptyList();
+    prefixHtml = null;
+    sectionHtml = new HashMap<>();
+  }
+
+  public String render(@NotNull Project project, @NotNull AsciiDocWrapper wrapper, @Language("asciidoc") String text, String config, List<String> extensions) {
+    Split split = REQUIRES_FULL_RENDER.matcher(config).find() ? null : split(project, text);
+    if (split == null || !canRenderIncrementally(split, config)) {
+      return renderFull(wrapper, text, config, extensions, split);
+    }
+    List<String> changed = new ArrayList<>();
+    for (String chunk : split.chunks()) {
+      if (!sectionHtml.containsKey(chunk)) {
+        changed.add(chunk);
+      }
+    }
+    if (changed.size() > MAX_CHANGED_SECTIONS) {
+      return renderFull(wrapper, text, config, extensions, split);
+    }
+    Map<String, String> newSectionHtml = new HashMap<>();
+    for (String chunk : changed) {
+      if (split.hasCrossReferences() && CROSS_REFERENCE.matcher(chunk).find()) {
+        // the text of a cross-reference might depend on a section that isn't part of this chunk
+        return renderFull(wrapper, text, config, extensions, split);
+      }
+      String html = extractSection(wrapper.render(chunk, config, extensions));
+      if (html == null) {
+        return renderFull(wrapper, text, config, extensions, split);
+      }
+      newSectionHtml.put(chunk, html);
+    }
+    StringBuilder result = new StringBuilder(prefixHtml);
+    for (int i = 0; i < split.chunks().size(); ++i) {
+      String chunk = split.chunks().get(i);
+      String html = newSectionHtml.get(chunk);
+      if (html == null) {
+        html = sectionHtml.get(chunk);
+      }
+      newSectionHtml.put(chunk, html);
+      if (i > 0) {
+        result.append('\n');
+      }
+      result.append(html);
+    }
+    result.append(CONTENT_END);
+    sectionHtml = newSectionHtml;
+    return result.toString();
+  }
+
+  private boolean canRenderIncrementally(Split split, String config) {
+    if (prefixHtml == null || !(config + split.prefix()).equals(previousPrefix)) {
+      return false;
+    }
+    if (split.hasCrossReferences() || TABLE_OF_CONTENTS.matcher(config + split.prefix()).find()) {
+      // references and the table of contents show the titles of other sections
+      return split.signature().equals(previousSignature);
+    }
+    return true;
+  }
+
+  private String renderFull(AsciiDocWrapper wrapper, String text, String config, List<String> extensions, @Nullable Split split) {
+    String html = wrapper.render(text, config, extensions);
+    reset();
+    if (split != null) {
+      populateCache(html, split, config);
+    }
+    return html;
+  }
+
+  /**
+   * Remember the HTML of each top-level section from a full render, so following renders can re-use it.
+   */
+  private void populateCache(String html, Split split, String config) {
+    if (!html.endsWith(CONTENT_END)) {
+      return;
+    }
+    List<Integer> starts = new ArrayList<>();
+    int pos = html.indexOf(SECTION_START);
+    while (pos != -1) {
+      starts.add(pos);
+      pos = html.indexOf(SECTION_START, pos + SECTION_START.length());
+    }
+    if (starts.size() != split.chunks().size()) {
+      // this might happen if a passthrough block contains the same HTML; a full render is necessary every time
+      return;
+    }
+    starts.add(html.length() - CONTENT_END.length());
+    for (int i = 0; i < split.chunks().size(); ++i) {
+      String section = html.substring(starts.get(i), starts.get(i + 1));
+      if (section.endsWith("\n")) {
+        // sections are separated by a newline, which is added again when joining the sections
+        section = section.substring(0, section.length() - 1);
+      }
+      sectionHtml.put(split.chunks().get(i), section);
+    }
+    prefixHtml = html.substring(0, starts.get(0));
+    previousPrefix = config + split.prefix();
+    previousSignature = split.signature();
+  }
+
+  /**
+   * Extract the HTML of the single top-level section from a rendered chunk.
+   */
+  @Nullable
+  static String extractSection(String html) {
+    int start = html.indexOf(SECTION_START);
+    if (start == -1 || html.indexOf(SECTION_START, start + SECTION_START.length()) != -1 || !html.endsWith(CONTENT_END)) {
+      return null;
+    }
+    return html.substring(start, html.length() - CONTENT_END.length());
+  }
+
+  /**
+   * Split the text in its top-level sections using the PSI tree.
+   *
+   * @return null if the document can't be rendered incrementally
+   */
+  @Nullable
+  static Split split(@NotNull Project project, @NotNull String text) {
+    if (REQUIRES_FULL_RENDER.matcher(text).find()) {
+      return null;
+    }
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      AsciiDocFile file = AsciiDocUtil.createFileFromText(project, text);
+      PsiElement parent = file;
+      List<AsciiDocSection> sections = PsiTreeUtil.getChildrenOfTypeAsList(file, AsciiDocSection.class);
+      if (sections.size() == 1 && sections.get(0).getHeadingLevel() == 0) {
+        // the document title contains all other sections
+        parent = sections.get(0);
+        sections = PsiTreeUtil.getChildrenOfTypeAsList(parent, AsciiDocSection.class);
+      }
+      if (sections.size() < 2) {
+        return null;
+      }
+      List<String> signature = new ArrayList<>();
+      Set<String> ids = new HashSet<>();
+      for (AsciiDocSection section : PsiTreeUtil.findChildrenOfType(file, AsciiDocSection.class)) {
+        if (section.getHeadingLevel() == 0 && section != parent) {
+          // parts of a book
+          return null;
+        }
+        if (!ids.add(section.getAutogeneratedId())) {
+          // duplicate IDs get a suffix depending on the sections rendered before
+          return null;
+        }
+        signature.add(section.getTitle());
+      }
+      for (AsciiDocBlockId blockId : PsiTreeUtil.findChildrenOfType(file, AsciiDocBlockId.class)) {
+        signature.add(blockId.getName());
+      }
+      List<TextRange> attributes = new ArrayList<>();
+      for (AsciiDocAttributeDeclaration declaration : PsiTreeUtil.findChildrenOfType(file, AsciiDocAttributeDeclaration.class)) {
+        if (declaration.getParent() instanceof AsciiDocFile || declaration.getParent() instanceof AsciiDocSection) {
+          attributes.add(declaration.getTextRange());
+        }
+      }
+      int[] lineStarts = lineStarts(text);
+      int firstSection = sections.get(0).getTextRange().getStartOffset();
+      int headerEnd = Math.min(headerEnd(text), firstSection);
+      String prefix = text.substring(0, firstSection);
+      List<String> chunks = new ArrayList<>();
+      for (int i = 0; i < sections.size(); ++i) {
+        int start = sections.get(i).getTextRange().getStartOffset();
+        int end = i + 1 < sections.size() ? sections.get(i + 1).getTextRange().getStartOffset() : text.length();
+        if (start > 0 && text.charAt(start - 1) != '\n') {
+          return null;
+        }
+        chunks.add(blankOut(text, lineStarts, headerEnd, start, attributes) + text.substring(start, end));
+      }
+      return new Split(prefix, chunks, signature, CROSS_REFERENCE.matcher(text).find());
+    });
+  }
+
+  /**
+   * Keep the header and all attribute entries before the section, and replace all other lines with empty lines.
+   */
+  private static String blankOut(String text, int[] lineStarts, int headerEnd, int sectionStart, List<TextRange> attributes) {
+    StringBuilder sb = new StringBuilder(sectionStart);
+    sb.append(text, 0, headerEnd);
+    for (int line = 0; line < lineStarts.length && lineStarts[line] < sectionStart; ++line) {
+      int lineStart = lineStarts[line];
+      if (lineStart < headerEnd) {
+        continue;
+      }
+      int lineEnd = line + 1 < lineStarts.length ? lineStarts[line + 1] : text.length();
+      boolean keep = false;
+      for (TextRange attribute : attributes) {
+        if (attribute.getStartOffset() < lineEnd && attribute.getEndOffset() > lineStart) {
+          keep = true;
+          break;
+        }
+      }
+      if (keep) {
+        sb.append(text, lineStart, lineEnd);
+      } else {
+        sb.append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The header ends with the first empty line after some content.
+   */
+  private static int headerEnd(String text) {
+    int pos = 0;
+    boolean content = false;
+    while (pos < text.length()) {
+      int lineEnd = text.indexOf('\n', pos);
+      if (lineEnd == -1) {
+        return text.length();
+      }
+      if (text.substring(pos, lineEnd).isBlank()) {
+        if (content) {
+          return pos;
+        }
+      } else {
+        content = true;
+      }
+      pos = lineEnd + 1;
+    }
+    return text.length();
+  }
+
+  private static int[] lineStarts(String text) {
+    List<Integer> starts = new ArrayList<>();
+    starts.add(0);
+    int pos = text.indexOf('\n');
+    while (pos != -1) {
+      starts.add(pos + 1);
+      pos = text.indexOf('\n', pos + 1);
+    }
+    return starts.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+}
@@ -37,29 +37,39 @@ import com.intellij.openapi.fileEditor.FileEditor;
 import com.intellij.openapi.fileEditor.FileEditorLocation;
 import com.intellij.openapi.fileEditor.FileEditorState;
 import com.intellij.openapi.fileEditor.FileEditorStateLevel;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.UserDataHolderBase;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.vfs.newvfs.BulkFileListener;
 import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.util.Alarm;
 import com.intellij.util.FileContentUtilCore;
+import com.intellij.util.PathUtil;
 import com.intellij.util.messages.MessageBusConnection;
 import org.asciidoc.intellij.AsciiDocExtensionService;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.download.AsciiDocDownloadNotificationProvider;
 import org.asciidoc.intellij.editor.jcef.AsciiDocJCEFHtmlPanel;
+import org.asciidoc.intellij.editor.jcef.AsciiDocJCEFHtmlPanelPool;
 import org.asciidoc.intellij.editor.jeditor.JeditorHtmlPanelProvider;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.settings.AsciiDocPreviewSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoc.intellij.threading.AsciiDocRenderCancellation;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonNls;
@@ -77,8 +87,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * @author Julien Viet
@@ -99,6 +111,18 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
   private transient String currentContent = null;
   private transient int lastRenderCycle = 0;
   private final AtomicInteger forcedRenderCycle = new AtomicInteger(1);
+  /**
+   * If the next render may show the snapshot of this document, as the editor has just been opened or selected.
+   */
+  private volatile boolean snapshotAllowed;
+  /**
+   * Paths of all files included by the document when it has been rendered last, <code>null</code> if not known.
+   * Changes to other AsciiDoc files don't need to refresh the preview, except for config files.
+   * Not known for Antora pages and for documents with cross-references to other files, as they show content of other files.
+   */
+  private volatile Set<String> includedPaths;
+
+  private static final Pattern XREF_TO_OTHER_FILE = Pattern.compile("xref:[^\\[\\s]*\\.adoc|<<[^>\\n]*\\.adoc");
 
   private transient int targetLineNo = 0;
   private transient int currentLineNo = 0;
@@ -125,6 +149,8 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
 
   private AsciiDocWrapper asciidoc;
 
+  private final AsciiDocIncrementalRenderer incrementalRenderer = new AsciiDocIncrementalRenderer();
+
   private void render() {
     lazyExecutor.execute(() -> {
       try {
@@ -132,13 +158,20 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
           // due to lazy execution, this project have been already closed, do nothing then to avoid exceptions
           return;
         }
+        final long vfsModificationCount = VirtualFileManager.getInstance().getModificationCount();
+        final long contentModificationStamp = document.getModificationStamp();
         final @Language("asciidoc") String content = document.getText();
         final String config = AsciiDocWrapper.config(document, project);
         List<String> extensions = extensionService.getExtensions(project);
         int currentRenderCycle = forcedRenderCycle.get();
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        if ((!(config + content).equals(currentContent) || currentRenderCycle != lastRenderCycle)
+          && showSnapshot(file, contentModificationStamp, config, content, currentRenderCycle)) {
+          // the snapshot is current, no need to render again
+          return;
+        }
         if (!(config + content).equals(currentContent) || currentRenderCycle != lastRenderCycle) {
           AsciiDocWrapper instance = getAsciiDocInstance();
-          VirtualFile file = FileDocumentManager.getInstance().getFile(document);
           if (file != null) {
             String name = file.getName();
             File fileBaseDir = new File("");
@@ -149,7 +182,17 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
             }
             instance.updateFileName(fileBaseDir, name);
           }
-          String markup = instance.render(content, config, extensions);
+          if (currentRenderCycle != lastRenderCycle) {
+            // included files or settings might have changed
+            incrementalRenderer.reset();
+          }
+          // abort the conversion once the document changes, as the next render will replace its result anyway;
+          // the stamp has been read before the text, so an edit in between cancels the conversion of the stale text
+          String markup = AsciiDocRenderCancellation.compute(
+            () -> document.getModificationStamp() != contentModificationStamp || project.isDisposed(),
+            () -> Registry.is("asciidoc.preview.incremental", false)
+              ? incrementalRenderer.render(project, instance, content, config, extensions)
+              : instance.render(content, config, extensions));
           if (Objects.equals("true", instance.getAttributes().get("asciidoctor-diagram-missing-diagram-extension"))) {
             if (getComponent().isVisible() && getComponent().isDisplayable()) {
               AsciiDocDownloadNotificationProvider.showNotification();
@@ -157,7 +200,8 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
           }
           if (markup != null) {
             AsciiDocHtmlPanel localPanel = myPanel;
-            if (localPanel != null) {
+            // the panel might have been returned to the pool and might now show a different document
+            if (localPanel != null && myPanel == localPanel) {
               localPanel.setHtml(markup, instance.getAttributes());
               synchronized (this) {
                 if (myPanel == localPanel) {
@@ -166,6 +210,12 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
                   lastRenderCycle = currentRenderCycle;
                 }
               }
+              // a render in dumb mode might miss references, therefore don't keep it
+              if (file != null && document.getModificationStamp() == contentModificationStamp && !DumbService.isDumb(project)) {
+                AsciiDocPreviewSnapshotCache.getInstance(project).put(file, new AsciiDocPreviewSnapshotCache.Snapshot(contentModificationStamp,
+                  config, vfsModificationCount, markup, instance.getAttributes()));
+              }
+              includedPaths = findIncludedPaths(file, config, content);
             }
           }
         }
@@ -192,6 +242,88 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
     });
   }
 
+  /**
+   * Look up all files included by the document in the index. Includes in the <code>.asciidoctorconfig</code> files aren't indexed,
+   * includes in Antora modules usually use resource IDs, and the index isn't available in dumb mode; the result is then unknown.
+   */
+  @Nullable
+  private Set<String> findIncludedPaths(@Nullable VirtualFile file, String config, String content) {
+    if (file == null || config.contains("include::") || XREF_TO_OTHER_FILE.matcher(content).find()) {
+      // the titles of other documents appear in the preview
+      return null;
+    }
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      if (project.isDisposed() || DumbService.isDumb(project) || !file.isValid()) {
+        return null;
+      }
+      VirtualFile parent = file.getParent();
+      if (parent != null && AsciiDocUtil.findAntoraModuleDir(project, parent) != null) {
+        // Antora pages refer to other pages and resources of their component
+        return null;
+      }
+      return AsciiDocIncludeIndex.getIncludedPathsTransitively(project, file);
+    });
+  }
+
+
+  /**
+   * Check if a change of a file might change the preview: this is the case for all files except for AsciiDoc files
+   * that are known not to be included in the document.
+   */
+  private boolean affectsPreview(@NotNull VFileEvent event) {
+    Set<String> paths = includedPaths;
+    if (paths == null || event.getFile() == null || event.getFile().isDirectory()) {
+      return true;
+    }
+    String name = PathUtil.getFileName(event.getPath());
+    if (!FileTypeRegistry.getInstance().getFileTypeByFileName(name).equals(AsciiDocFileType.INSTANCE)
+      || name.startsWith(".asciidoctorconfig")) {
+      // the content of config files is prepended to the document
+      return true;
+    }
+    if (paths.contains(event.getPath())) {
+      return true;
+    }
+    // the file might have been moved or renamed away from an included path
+    if (event instanceof VFileMoveEvent moveEvent) {
+      return paths.contains(moveEvent.getOldPath());
+    }
+    if (event instanceof VFilePropertyChangeEvent propertyChangeEvent) {
+      return paths.contains(propertyChangeEvent.getOldPath());
+    }
+    return false;
+  }
+
+  /**
+   * Show the last preview rendered for this document when the editor has just been opened or selected, so that the user doesn't
+   * need to wait for the render to see the preview.
+   *
+   * @return <code>true</code> if the snapshot is current, and the document doesn't need to be rendered again
+   */
+  private boolean showSnapshot(@Nullable VirtualFile file, long modificationStamp, String config, String content, int currentRenderCycle) {
+    if (!snapshotAllowed || file == null) {
+      return false;
+    }
+    AsciiDocPreviewSnapshotCache.Snapshot snapshot = AsciiDocPreviewSnapshotCache.getInstance(project).get(file, modificationStamp, config);
+    AsciiDocHtmlPanel localPanel = myPanel;
+    if (snapshot == null || localPanel == null) {
+      return false;
+    }
+    localPanel.setHtml(snapshot.html(), snapshot.attributes());
+    if (!snapshot.isCurrent()) {
+      // an included file might have changed, render in the background and replace the snapshot once done
+      return false;
+    }
+    synchronized (this) {
+      if (myPanel == localPanel) {
+        currentContent = config + content;
+        lastRenderCycle = currentRenderCycle;
+      }
+    }
+    includedPaths = findIncludedPaths(file, config, content);
+    return true;
+  }
+
   private AsciiDocWrapper getAsciiDocInstance() {
     if (asciidoc == null) {
       VirtualFile file = FileDocumentManager.getInstance().getFile(document);
@@ -274,6 +406,16 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
    */
   private void forceRenderCycle() {
     forcedRenderCycle.incrementAndGet();
+    snapshotAllowed = false;
+  }
+
+  /**
+   * Force a render once the editor has been opened or selected. Unlike other forced renders, the render may show the snapshot
+   * of the document first, and skip the render if nothing changed since the snapshot has been rendered.
+   */
+  private void forceRenderCycleOnSelect() {
+    forcedRenderCycle.incrementAndGet();
+    snapshotAllowed = true;
   }
 
   public AsciiDocPreviewEditor(final Document document, Project project) {
@@ -302,21 +444,7 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
 
       @Override
       public void componentHidden(ComponentEvent e) {
-        if (!mySwingAlarm.isDisposed()) {
-          mySwingAlarm.addRequest(() -> {
-            try {
-              if (!mySwingAlarm.isDisposed()) {
-                synchronized (this) {
-                  if (myPanel != null) {
-                    myPanel = detachOldPanelAndCreateAndAttachNewOne(document, tempImagesPath, myHtmlPanelWrapper, hint, myPanel, null, AsciiDocPreviewEditor.this::forceRefresh);
-                  }
-                }
-              }
-            } catch (Exception ex) {
-              LOG.error("unhandled exception when preparing the preview", ex);
-            }
-          }, 0, ModalityState.stateForComponent(getComponent()));
-        }
+        releasePanelLater();
       }
     });
 
@@ -363,8 +491,8 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
               if (file == null || !file.isValid()) {
                 continue;
               }
-              // check if the modified file was part of the project
-              if (ProjectFileIndex.getInstance(project).getModuleForFile(file) != null) {
+              // check if the modified file was part of the project, and if it might be included in the preview
+              if (ProjectFileIndex.getInstance(project).getModuleForFile(file) != null && affectsPreview(event)) {
                 // As an include might have been modified, force the refresh of the preview
                 forceRenderCycle();
                 renderIfVisible();
@@ -404,7 +532,7 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
                 final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
                 myPanel = detachOldPanelAndCreateAndAttachNewOne(document, tempImagesPath, myHtmlPanelWrapper, hint, null, retrievePanelProvider(settings), AsciiDocPreviewEditor.this::forceRefresh);
                 myPanel.setEditor(editor);
-                forceRenderCycle();
+                forceRenderCycleOnSelect();
                 // when this happens, the panel has just been initialized, and it isn't yet displayable; therefore always render it.
                 render();
               }
@@ -417,6 +545,41 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
     }
   }
 
+  /**
+   * Remove the preview from this editor once the editor is no longer shown.
+   */
+  private void releasePanelLater() {
+    if (!mySwingAlarm.isDisposed()) {
+      mySwingAlarm.addRequest(() -> {
+        try {
+          if (!mySwingAlarm.isDisposed()) {
+            synchronized (this) {
+              if (myPanel != null) {
+                releasePanel(myHtmlPanelWrapper, myPanel);
+                myPanel = null;
+              }
+            }
+          }
+        } catch (Exception ex) {
+          LOG.error("unhandled exception when preparing the preview", ex);
+        }
+      }, 0, ModalityState.stateForComponent(getComponent()));
+    }
+  }
+
+  /**
+   * Remove the preview from the editor, and return it to the pool if the pool can re-use it for this or another editor.
+   */
+  private static void releasePanel(@NotNull JPanel panelWrapper, @NotNull AsciiDocHtmlPanel panel) {
+    ApplicationManager.getApplication().assertIsDispatchThread();
+    panelWrapper.remove(panel.getComponent());
+    if (panel instanceof AsciiDocJCEFHtmlPanel jcefPanel && AsciiDocJCEFHtmlPanelPool.isEnabled()) {
+      AsciiDocJCEFHtmlPanelPool.getInstance().release(jcefPanel);
+    } else {
+      Disposer.dispose(panel);
+    }
+  }
+
   @Contract("_, _, _, null, null -> fail")
   private static AsciiDocHtmlPanel detachOldPanelAndCreateAndAttachNewOne(Document document, Path imagesDir, @NotNull JPanel panelWrapper,
                                                                           @NotNull JLabel hint,
@@ -585,7 +748,7 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
           // project might be already closed (yes, this really happens when you work in multiple projects opened in separate windows)
           if (!project.isDisposed()) {
             reprocessAnnotations();
-            forceRenderCycle(); // force a refresh of the preview by resetting the current memorized content
+            forceRenderCycleOnSelect(); // force a refresh of the preview by resetting the current memorized content
             renderIfVisible();
           }
         });
@@ -600,7 +763,7 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
             LOG.info("Skipping reprocessing annotations due to PCE");
           }
           // force a refresh of the preview by resetting the current memorized content
-          forceRenderCycle();
+          forceRenderCycleOnSelect();
           renderIfVisible();
         });
       }
@@ -620,10 +783,18 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
   /**
    * Invoked when the editor is deselected (it does not mean that it is not visible).
    * <p/>
-   * Does nothing.
+   * Returns the preview to the pool once the editor is no longer shown, so that the editor selected next can use it.
+   * The preview still shows the content of this editor, therefore this editor gets the same preview back if it is selected again.
    */
   @Override
   public void deselectNotify() {
+    if (AsciiDocJCEFHtmlPanelPool.isEnabled()) {
+      ApplicationManager.getApplication().invokeLater(() -> {
+        if (!getComponent().isShowing()) {
+          releasePanelLater();
+        }
+      }, ModalityState.stateForComponent(getComponent()));
+    }
   }
 
   /**
@@ -686,10 +857,10 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
    */
   @Override
   public void dispose() {
-    if (myPanel != null) {
-      Disposer.dispose(myPanel);
-      synchronized (this) {
-        myPanel = detachOldPanelAndCreateAndAttachNewOne(document, tempImagesPath, myHtmlPanelWrapper, hint, myPanel, null, AsciiDocPreviewEditor.this::forceRefresh);
+    synchronized (this) {
+      if (myPanel != null) {
+        releasePanel(myHtmlPanelWrapper, myPanel);
+        myPanel = null;
       }
     }
     Arrays.stream(myHtmlPanelWrapper.getComponentListeners()).forEach(l -> myHtmlPanelWrapper.removeComponentListener(l));
@@ -784,6 +955,7 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
       // opening a project in non-trusted mode forces the SECURE mode on preview rendering
       // making the project trusted should therefore force re-rendering of the preview.
       ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        AsciiDocPreviewSnapshotCache.getInstance(project).clear();
         forceRenderCycle();
         AsciiDocHtmlPanel localPanel = myPanel;
         if (localPanel != null) {
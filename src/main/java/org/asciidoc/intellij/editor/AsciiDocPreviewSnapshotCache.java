@@ -0,0 +1,101 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last preview rendered for each file of a project. When an editor is opened or selected again, it shows this snapshot
+ * immediately instead of an empty preview, and renders the document again only if it might have changed since.
+ * The number of snapshots and their total size are limited, the least recently used snapshots are evicted first.
+ */
+@Service(Service.Level.PROJECT)
+public final class AsciiDocPreviewSnapshotCache implements Disposable {
+
+  private static final int MAX_ENTRIES = 50;
+
+  /**
+   * Maximum number of characters of all snapshots. A single preview larger than this isn't kept.
+   */
+  private static final long MAX_TOTAL_LENGTH = 32L * 1024 * 1024;
+
+  /**
+   * Rendered HTML of a document.
+   *
+   * @param modificationStamp    modification stamp of the document when it has been rendered
+   * @param vfsModificationCount VFS modification count before the document has been rendered; if it changed since,
+   *                             included files might have changed
+   */
+  public record Snapshot(long modificationStamp, @NotNull String config, long vfsModificationCount,
+                         @NotNull String html, @NotNull Map<String, String> attributes) {
+
+    /**
+     * If no file has changed since the snapshot has been rendered. Otherwise, an included file might have changed.
+     */
+    public boolean isCurrent() {
+      return vfsModificationCount == VirtualFileManager.getInstance().getModificationCount();
+    }
+  }
+
+  private final Map<String, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalLength;
+
+  public AsciiDocPreviewSnapshotCache() {
+    ApplicationManager.getApplication().getMessageBus().connect(this)
+      .subscribe(AsciiDocApplicationSettings.SettingsChangedListener.TOPIC, settings -> clear());
+  }
+
+  public static AsciiDocPreviewSnapshotCache getInstance(@NotNull Project project) {
+    return project.getService(AsciiDocPreviewSnapshotCache.class);
+  }
+
+  /**
+   * Return the snapshot of the file if it has been rendered from the given content and configuration.
+   */
+  @Nullable
+  public synchronized Snapshot get(@NotNull VirtualFile file, long modificationStamp, @NotNull String config) {
+    Snapshot snapshot = snapshots.get(file.getUrl());
+    if (snapshot == null || snapshot.modificationStamp() != modificationStamp || !snapshot.config().equals(config)) {
+      return null;
+    }
+    return snapshot;
+  }
+
+  public synchronized void put(@NotNull VirtualFile file, @NotNull Snapshot snapshot) {
+    Snapshot previous = snapshots.remove(file.getUrl());
+    if (previous != null) {
+      totalLength -= previous.html().length();
+    }
+    if (snapshot.html().length() > MAX_TOTAL_LENGTH) {
+      return;
+    }
+    snapshots.put(file.getUrl(), snapshot);
+    totalLength += snapshot.html().length();
+    Iterator<Snapshot> iterator = snapshots.values().iterator();
+    while ((snapshots.size() > MAX_ENTRIES || totalLength > MAX_TOTAL_LENGTH) && iterator.hasNext()) {
+      totalLength -= iterator.next().html().length();
+      iterator.remove();
+    }
+  }
+
+  public synchronized void clear() {
+    snapshots.clear();
+    totalLength = 0;
+  }
+
+  @Override
+  public void dispose() {
+    clear();
+  }
+
+}
@@ -18,6 +18,8 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.asciidoc.intellij.AsciiDocExtensionService;
 import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.editor.AsciiDocHtmlRewriter;
+import org.asciidoc.intellij.editor.AsciiDocImageFingerprint;
 import org.asciidoc.intellij.editor.AsciiDocPreviewEditor;
 import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
 import org.asciidoc.intellij.file.AsciiDocFileType;
@@ -28,7 +30,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
@@ -37,14 +38,10 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BrowserPanel implements Disposable {
@@ -249,168 +246,136 @@ public class BrowserPanel implements Disposable {
     return signWithMac.checkMac(file, mac);
   }
 
-  @SuppressWarnings("checkstyle:MethodLength")
   private String prepareHtml(@NotNull String html, Project project, Map<String, String> attributes, Path imagesPath, boolean isAntora, @NotNull VirtualFile originalFile) {
-    // Antora plugin might resolve some absolute URLs, convert them to localfile so they get their MD5 that prevents caching
-    Pattern pattern = Pattern.compile("<img src=\"file:///([^\"]*)\"");
-    Matcher matcher = pattern.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String file = matchResult.group(1);
-      file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
+    // rewrite the URLs of the content only, the docinfo files added by enrichPage() keep their URLs
+    html = AsciiDocHtmlRewriter.rewrite(html, (kind, url) -> switch (kind) {
+      case IMAGE -> rewriteImage(url, project, attributes, imagesPath, originalFile);
+      case LINK -> rewriteLink(url, project, attributes);
+      case OBJECT -> rewriteObject(url);
+    }, null, null);
+
+    /* Add CSS line and JavaScript */
+    if (isAntora) {
+      html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, project);
+    } else {
+      html = AsciiDocWrapper.enrichPage(html, getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, project);
+    }
+    return AsciiDocHtmlRewriter.rewrite(html, AsciiDocHtmlRewriter.KEEP_URLS, null, getScriptingLines());
+  }
+
+  @Nullable
+  private String rewriteImage(@NotNull String url, Project project, Map<String, String> attributes, Path imagesPath, @NotNull VirtualFile originalFile) {
+    String file;
+    if (url.startsWith("file:///")) {
+      // Antora plugin might resolve some absolute URLs, convert them to localfile so they get their MD5 that prevents caching
+      file = URLDecoder.decode(url.substring("file:///".length()), StandardCharsets.UTF_8); // restore "%20" as " "
       String tmpFile = findTempImageFile(file, null, imagesPath);
-      String md5;
-      String replacement;
       if (tmpFile != null) {
-        md5 = calculateMd5(tmpFile, null);
-        replacement = "<img src=\"image?file=" + signFile(tmpFile) + "&amp;hash=" + md5 + "\"";
+        return "image?file=" + signFile(tmpFile) + "&amp;hash=" + calculateMd5(tmpFile, null);
       } else {
-        md5 = calculateMd5(file, base);
-        replacement = "<img src=\"image?file=" + signFile(base + "/" + file) + "&amp;hash=" + md5 + "\"";
+        return "image?file=" + signFile(base + "/" + file) + "&amp;hash=" + calculateMd5(file, base);
       }
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
     }
 
     /* for each image we'll calculate a MD5 sum of its content. Once the content changes, MD5 and therefore the URL
      * will change. The changed URL is necessary for the Browser to display the new content, as each URL
      * will be loaded only once due to caching. Also each URL to a local image will be signed so that it can be retrieved securely afterwards */
-    pattern = Pattern.compile("<img src=\"([^:\"]*)\"");
-    matcher = pattern.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String file = matchResult.group(1);
-      if (file.startsWith("image?")) {
-        continue;
-      }
-      try {
-        file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
-      } catch (IllegalArgumentException e) {
-        // ignored, this must be a manually entered URL with a percentage sign
-        continue;
-      }
-      String replacement = null;
-      String tmpFile = findTempImageFile(file, attributes.get("imagesdir"), imagesPath);
-      if (tmpFile != null) {
-        replacement = calculateFileAndMd5(tmpFile, null);
-      }
-      if (replacement == null) {
-        replacement = calculateFileAndMd5(file, base);
-      }
-      if (replacement == null && file.startsWith("/")) {
-        VirtualFile hugoStaticFile = AsciiDocUtil.findHugoStaticFolder(project, originalFile);
-        if (hugoStaticFile != null) {
-          replacement = calculateFileAndMd5(file.substring(1), hugoStaticFile.getCanonicalPath());
-        }
-      }
-      if (replacement == null && attributes.get("imagesdir") != null && attributes.get("imagesdir").length() > 0 && file.startsWith("/")) {
-        // For image file names starting with a slash, the imagesdir is not being added automatically.
-        // Try to use it to find the file - imagesdir might be relative to the base directory, or an absolute path.
-        replacement = calculateFileAndMd5(attributes.get("imagesdir") + file, base);
-        if (replacement == null) {
-          replacement = calculateFileAndMd5(file, attributes.get("imagesdir"));
-        }
+    if (url.indexOf(':') != -1 || url.startsWith("image?")) {
+      return null;
+    }
+    try {
+      file = URLDecoder.decode(url, StandardCharsets.UTF_8); // restore "%20" as " "
+    } catch (IllegalArgumentException e) {
+      // ignored, this must be a manually entered URL with a percentage sign
+      return null;
+    }
+    String replacement = null;
+    String tmpFile = findTempImageFile(file, attributes.get("imagesdir"), imagesPath);
+    if (tmpFile != null) {
+      replacement = calculateFileAndMd5(tmpFile, null);
+    }
+    if (replacement == null) {
+      replacement = calculateFileAndMd5(file, base);
+    }
+    if (replacement == null && file.startsWith("/")) {
+      VirtualFile hugoStaticFile = AsciiDocUtil.findHugoStaticFolder(project, originalFile);
+      if (hugoStaticFile != null) {
+        replacement = calculateFileAndMd5(file.substring(1), hugoStaticFile.getCanonicalPath());
       }
+    }
+    if (replacement == null && attributes.get("imagesdir") != null && attributes.get("imagesdir").length() > 0 && file.startsWith("/")) {
+      // For image file names starting with a slash, the imagesdir is not being added automatically.
+      // Try to use it to find the file - imagesdir might be relative to the base directory, or an absolute path.
+      replacement = calculateFileAndMd5(attributes.get("imagesdir") + file, base);
       if (replacement == null) {
-        // some fallback
-        replacement = base + "/" + file + "&amp;hash=none";
+        replacement = calculateFileAndMd5(file, attributes.get("imagesdir"));
       }
-      replacement = "<img src=\"image?file=" + replacement + "\"";
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
     }
+    if (replacement == null) {
+      // some fallback
+      replacement = base + "/" + file + "&amp;hash=none";
+    }
+    return "image?file=" + replacement;
+  }
 
-    /* the same as above for links to local resources */
-    pattern = Pattern.compile("<a ([^>])*href=\"([^#:\"]*)\"");
-    matcher = pattern.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String other = matchResult.group(1);
-      if (other == null) {
-        other = "";
-      }
-      String file = matchResult.group(2);
-      if (file.startsWith("image?") || file.startsWith("source?")) {
-        continue;
-      }
-      try {
-        file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
-      } catch (IllegalArgumentException e) {
-        // ignored, this must be a manually entered URL with a percentage sign
-        continue;
-      }
-      // type 'image' will deliver a binary file
-      String type = "image";
-      String suffix = "";
-      if (AsciiDocFileType.hasAsciiDocExtension(file)) {
-        // type 'source' will be an AsciiDoc converted to HTML on the fly
-        type = "source";
-      } else if (file.endsWith(".html")) {
-        if (!new File(base + "/" + file).exists()) {
-          String adocFile = file.replaceAll("\\.html$", attributes.get("docfilesuffix"));
-          if (new File(base + "/" + adocFile).exists()) {
-            // if the file points to an HTML that doesn't exist, but an AsciiDoc file with the same name exists, use the AsciiDoc file and convert it on the fly
-            file = adocFile;
-            type = "source";
-          }
-        }
-      } else if (new File(base + "/" + file + "." + attributes.get("docfilesuffix")).exists()) {
-        // if the file points to a file without extension, but an AsciiDoc file with the same name exists, use the AsciiDoc file and convert it on the fly
-        file = file + "." + attributes.get("docfilesuffix");
-        type = "source";
-      }
-      if (type.equals("source")) {
-        if (project.getPresentableUrl() != null) {
-          suffix = "&amp;projectUrl=" + URLEncoder.encode(project.getPresentableUrl(), StandardCharsets.UTF_8);
-        } else {
-          suffix = "&amp;projectName=" + URLEncoder.encode(project.getName(), StandardCharsets.UTF_8);
+  /* the same as for images for links to local resources */
+  @Nullable
+  private String rewriteLink(@NotNull String url, Project project, Map<String, String> attributes) {
+    if (url.indexOf(':') != -1 || url.indexOf('#') != -1 || url.startsWith("image?") || url.startsWith("source?")) {
+      return null;
+    }
+    String file;
+    try {
+      file = URLDecoder.decode(url, StandardCharsets.UTF_8); // restore "%20" as " "
+    } catch (IllegalArgumentException e) {
+      // ignored, this must be a manually entered URL with a percentage sign
+      return null;
+    }
+    // type 'image' will deliver a binary file
+    String type = "image";
+    String suffix = "";
+    if (AsciiDocFileType.hasAsciiDocExtension(file)) {
+      // type 'source' will be an AsciiDoc converted to HTML on the fly
+      type = "source";
+    } else if (file.endsWith(".html")) {
+      if (!new File(base + "/" + file).exists()) {
+        String adocFile = file.replaceAll("\\.html$", attributes.get("docfilesuffix"));
+        if (new File(base + "/" + adocFile).exists()) {
+          // if the file points to an HTML that doesn't exist, but an AsciiDoc file with the same name exists, use the AsciiDoc file and convert it on the fly
+          file = adocFile;
+          type = "source";
         }
       }
-      String replacement;
-      replacement = "<a " + other + "href=\"" + type + "?file=" + signFile(base + "/" + file) + suffix + "\"";
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
+    } else if (new File(base + "/" + file + "." + attributes.get("docfilesuffix")).exists()) {
+      // if the file points to a file without extension, but an AsciiDoc file with the same name exists, use the AsciiDoc file and convert it on the fly
+      file = file + "." + attributes.get("docfilesuffix");
+      type = "source";
     }
-
-    /* the same as above for interactive SVGs */
-    pattern = Pattern.compile("<object ([^>])*data=\"([^:\"]*)\"");
-    matcher = pattern.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String other = matchResult.group(1);
-      if (other == null) {
-        other = "";
-      }
-      String file = matchResult.group(2);
-      if (file.startsWith("image?")) {
-        continue;
-      }
-      try {
-        file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
-      } catch (IllegalArgumentException e) {
-        // ignored, this must be a manually entered URL with a percentage sign
-        continue;
+    if (type.equals("source")) {
+      if (project.getPresentableUrl() != null) {
+        suffix = "&amp;projectUrl=" + URLEncoder.encode(project.getPresentableUrl(), StandardCharsets.UTF_8);
+      } else {
+        suffix = "&amp;projectName=" + URLEncoder.encode(project.getName(), StandardCharsets.UTF_8);
       }
-      // type 'image' will deliver a binary file
-      String type = "image";
-      String replacement;
-      replacement = "<object " + other + "data=\"" + type + "?file=" + signFile(base + "/" + file) + "\"";
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
     }
+    return type + "?file=" + signFile(base + "/" + file) + suffix;
+  }
 
-    /* Add CSS line and JavaScript */
-    if (isAntora) {
-      html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, project);
-    } else {
-      html = AsciiDocWrapper.enrichPage(html, getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, project);
+  /* the same as for images for interactive SVGs */
+  @Nullable
+  private String rewriteObject(@NotNull String url) {
+    if (url.indexOf(':') != -1 || url.startsWith("image?")) {
+      return null;
     }
-    html = html.replace("</body>", getScriptingLines() + "</body>");
-    return html;
+    String file;
+    try {
+      file = URLDecoder.decode(url, StandardCharsets.UTF_8); // restore "%20" as " "
+    } catch (IllegalArgumentException e) {
+      // ignored, this must be a manually entered URL with a percentage sign
+      return null;
+    }
+    // type 'image' will deliver a binary file
+    return "image?file=" + signFile(base + "/" + file);
   }
 
   @NotNull
@@ -434,26 +399,8 @@ public class BrowserPanel implements Disposable {
   }
 
   public static String calculateMd5(String file, String base) {
-    String md5;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      try (FileInputStream fis = new FileInputStream((base != null ? base + "/" : "") + file)) {
-        int nread;
-        byte[] dataBytes = new byte[1024];
-        while ((nread = fis.read(dataBytes)) != -1) {
-          md.update(dataBytes, 0, nread);
-        }
-      }
-      byte[] mdbytes = md.digest();
-      StringBuilder sb = new StringBuilder();
-      for (byte mdbyte : mdbytes) {
-        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
-      }
-      md5 = sb.toString();
-    } catch (NoSuchAlgorithmException | IOException e) {
-      md5 = "none";
-    }
-    return md5;
+    String md5 = AsciiDocImageFingerprint.getInstance().getFingerprint((base != null ? base + "/" : "") + file);
+    return md5 != null ? md5 : "none";
   }
 
   @NotNull
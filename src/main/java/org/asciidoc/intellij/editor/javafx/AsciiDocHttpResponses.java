@@ -0,0 +1,157 @@
+package org.asciidoc.intellij.editor.javafx;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.io.Responses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Responses of the {@link PreviewStaticServer} with an ETag derived from the content, so that a browser that reloads
+ * a page receives a short <code>304 Not Modified</code> for everything that didn't change.
+ * Text content is compressed with gzip if the browser accepts it.
+ */
+final class AsciiDocHttpResponses {
+
+  /**
+   * Compressing small responses doesn't save enough to be worth the effort.
+   */
+  private static final int MIN_COMPRESS_LENGTH = 1024;
+
+  private static final String GZIP_SUFFIX = "-gzip";
+
+  private AsciiDocHttpResponses() {
+  }
+
+  /**
+   * Content of a response with its ETag, and a compressed variant if compressing it saves space.
+   * Static resources keep this for the lifetime of the IDE, so that they are hashed and compressed only once.
+   */
+  record Body(byte[] data, @NotNull String etag, @Nullable byte[] gzip) {
+
+    static Body create(byte[] data, boolean compressible) {
+      byte[] gzip = null;
+      if (compressible && data.length >= MIN_COMPRESS_LENGTH) {
+        gzip = compress(data);
+        if (gzip != null && gzip.length >= data.length) {
+          gzip = null;
+        }
+      }
+      return new Body(data, hash(data), gzip);
+    }
+  }
+
+  static boolean isCompressible(@NotNull String contentType) {
+    return contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+      || contentType.contains("xml");
+  }
+
+  /**
+   * Send the body, or <code>304 Not Modified</code> if the browser has the same content already.
+   */
+  static void send(@NotNull HttpRequest request, @NotNull Channel channel, @NotNull Body body, @NotNull String contentType,
+                   @NotNull String cacheControl) {
+    Responses.send(createResponse(request, body, contentType, cacheControl), channel, request);
+  }
+
+  /**
+   * Create the response for the body, so that the caller can add further headers before sending it.
+   */
+  @NotNull
+  static FullHttpResponse createResponse(@NotNull HttpRequest request, @NotNull Body body, @NotNull String contentType,
+                                         @NotNull String cacheControl) {
+    boolean useGzip = body.gzip() != null && acceptsGzip(request.headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+    // the compressed variant needs its own ETag, as it has a different content
+    String etag = "\"" + body.etag() + (useGzip ? GZIP_SUFFIX : "") + "\"";
+    FullHttpResponse response;
+    if (matches(request.headers().get(HttpHeaderNames.IF_NONE_MATCH), etag)) {
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED, Unpooled.EMPTY_BUFFER);
+    } else {
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+        Unpooled.wrappedBuffer(useGzip ? body.gzip() : body.data()));
+      response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+      if (useGzip) {
+        response.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+      }
+    }
+    response.headers().set(HttpHeaderNames.ETAG, etag);
+    response.headers().set(HttpHeaderNames.CACHE_CONTROL, cacheControl);
+    if (body.gzip() != null) {
+      response.headers().set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+    }
+    return response;
+  }
+
+  /**
+   * Check if the ETag is one of the ETags of the <code>If-None-Match</code> header.
+   */
+  static boolean matches(@Nullable String ifNoneMatch, @NotNull String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      String value = candidate.trim();
+      if (value.startsWith("W/")) {
+        value = value.substring(2);
+      }
+      if (value.equals(etag) || value.equals("*")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean acceptsGzip(@Nullable String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String candidate : acceptEncoding.split(",")) {
+      String[] parts = candidate.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        // "q=0" explicitly refuses the encoding
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private static byte[] compress(byte[] data) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    } catch (IOException e) {
+      return null;
+    }
+    return out.toByteArray();
+  }
+
+  private static String hash(byte[] data) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      byte[] digest = md.digest(data);
+      StringBuilder sb = new StringBuilder();
+      // half of the hash is enough to tell versions of the same resource apart
+      for (int i = 0; i < digest.length / 2; i++) {
+        sb.append(Integer.toString((digest[i] & 0xff) + 0x100, 16).substring(1));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("unknown hash", e);
+    }
+  }
+
+}
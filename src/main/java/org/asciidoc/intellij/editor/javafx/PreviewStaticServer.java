@@ -39,6 +39,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,8 +50,10 @@ public class PreviewStaticServer extends HttpRequestHandler {
 
   private static BrowserPanel browserPanel;
 
-  // every time the plugin starts up, assume resources could have been modified
-  private static final long LAST_MODIFIED = System.currentTimeMillis();
+  /**
+   * Stylesheets and scripts bundled with the plugin, hashed and compressed once when they are first requested.
+   */
+  private static final Map<String, AsciiDocHttpResponses.Body> RESOURCES = new ConcurrentHashMap<>();
 
   public static PreviewStaticServer getInstance() {
     return HttpRequestHandler.Companion.getEP_NAME().findExtension(PreviewStaticServer.class);
@@ -247,23 +250,23 @@ public class PreviewStaticServer extends HttpRequestHandler {
   private boolean sendImage(FullHttpRequest request, String file, String mac, Channel channel) {
     byte[] image = getBrowserPanel().getImage(file, mac);
     if (image != null) {
-      FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(image));
+      String contentType;
       if (file.endsWith(".png")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/png");
+        contentType = "image/png";
       } else if (file.endsWith(".jpg")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/jpeg");
+        contentType = "image/jpeg";
       } else if (file.endsWith(".svg")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/svg+xml");
+        contentType = "image/svg+xml";
       } else if (file.endsWith(".css")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/css");
+        contentType = "text/css";
       } else if (file.endsWith(".js")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/javascript");
+        contentType = "application/javascript";
       } else {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream");
+        contentType = "application/octet-stream";
       }
-      response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600, private, must-revalidate");
-      response.headers().set(HttpHeaderNames.ETAG, Long.toString(LAST_MODIFIED));
-      Responses.send(response, channel, request);
+      // the ETag is the hash of the content, therefore a browser reloading the preview revalidates unchanged images with a 304
+      AsciiDocHttpResponses.send(request, channel, AsciiDocHttpResponses.Body.create(image, AsciiDocHttpResponses.isCompressible(contentType)),
+        contentType, "max-age=3600, private, must-revalidate");
       return true;
     } else {
       return false;
@@ -287,9 +290,9 @@ public class PreviewStaticServer extends HttpRequestHandler {
 
   private void sendDocument(FullHttpRequest request, @NotNull VirtualFile file, @NotNull Project project, @NotNull Channel channel) {
     String html = getBrowserPanel().getHtml(file, project);
-    FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(html.getBytes(StandardCharsets.UTF_8)));
-    response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/html; charset=UTF-8");
-    response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=5, private, must-revalidate");
+    FullHttpResponse response = AsciiDocHttpResponses.createResponse(request,
+      AsciiDocHttpResponses.Body.create(html.getBytes(StandardCharsets.UTF_8), true),
+      "text/html; charset=UTF-8", "max-age=5, private, must-revalidate");
     response.headers().set("Referrer-Policy", "no-referrer");
     Responses.send(response, channel, request);
   }
@@ -297,12 +300,12 @@ public class PreviewStaticServer extends HttpRequestHandler {
   private static void sendResource(@NotNull HttpRequest request,
                                    @NotNull Channel channel,
                                    @NotNull String resourceName) {
-    /*
-    // API incompatible with older versions of IntelliJ
-    if (FileResponses.INSTANCE.checkCache(request, channel, lastModified)) {
+    String contentType = FileResponses.INSTANCE.getContentType(resourceName);
+    AsciiDocHttpResponses.Body body = RESOURCES.get(resourceName);
+    if (body != null) {
+      AsciiDocHttpResponses.send(request, channel, body, contentType, "max-age=3600, private, must-revalidate");
       return;
     }
-    */
 
     byte[] data;
     try (InputStream inputStream = PreviewStaticServer.class.getResourceAsStream(resourceName)) {
@@ -318,11 +321,10 @@ public class PreviewStaticServer extends HttpRequestHandler {
       return;
     }
 
-    FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(data));
-    response.headers().set(HttpHeaderNames.CONTENT_TYPE, FileResponses.INSTANCE.getContentType(resourceName));
-    response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600, private, must-revalidate");
-    response.headers().set(HttpHeaderNames.ETAG, Long.toString(LAST_MODIFIED));
-    Responses.send(response, channel, request);
+    // resources don't change while the plugin is loaded, so compress them only once
+    body = RESOURCES.computeIfAbsent(resourceName,
+      name -> AsciiDocHttpResponses.Body.create(data, AsciiDocHttpResponses.isCompressible(contentType)));
+    AsciiDocHttpResponses.send(request, channel, body, contentType, "max-age=3600, private, must-revalidate");
   }
 
 }
@@ -45,17 +45,21 @@ import com.intellij.ui.jcef.JBCefJSQuery;
 import com.intellij.ui.jcef.JBCefPsiNavigationUtils;
 import com.intellij.ui.jcef.JCEFHtmlPanel;
 import com.intellij.ui.scale.JBUIScale;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.TextTransferable;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.commandRunner.AsciiDocRunner;
 import org.asciidoc.intellij.editor.AsciiDocHtmlPanel;
+import org.asciidoc.intellij.editor.AsciiDocHtmlRewriter;
+import org.asciidoc.intellij.editor.AsciiDocImageFingerprint;
 import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
 import org.asciidoc.intellij.injection.LanguageGuesser;
 import org.asciidoc.intellij.psi.AsciiDocFileUtil;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.asciidoc.intellij.settings.AsciiDocPreviewSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.cef.browser.CefBrowser;
 import org.cef.browser.CefFrame;
@@ -67,10 +71,8 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
@@ -84,11 +86,12 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -96,9 +99,10 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
 
   private static final Logger LOG = Logger.getInstance(AsciiDocJCEFHtmlPanel.class);
 
-  private final Path imagesPath;
+  private volatile Path imagesPath;
   @NotNull
-  private final Document document;
+  private volatile Document document;
+  private volatile Runnable forceRefreshCallback;
 
   private JBCefJSQuery myJSQuerySetScrollY;
   private JBCefJSQuery myRenderedIteration;
@@ -106,6 +110,44 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   private JBCefJSQuery myScrollEditorToLine;
   private Boolean isAntoraCache;
 
+  @NotNull
+  Document getDocument() {
+    return document;
+  }
+
+  /**
+   * Show the preview of another document in this panel, see {@link AsciiDocJCEFHtmlPanelPool}.
+   * The browser and the page around the content are re-used; if the document changes, the content of the previous document is removed.
+   */
+  void attach(@NotNull Document document, Path imagesPath, Runnable forceRefresh) {
+    this.imagesPath = imagesPath;
+    this.forceRefreshCallback = forceRefresh;
+    if (this.document == document) {
+      return;
+    }
+    this.document = document;
+    synchronized (this) {
+      isAntoraCache = null;
+    }
+    editor = null;
+    line = 0;
+    lineCount = 0;
+    lineIndex = null;
+    myScrollPreservingListener.myScrollY = 0;
+    setHtml("<div id=\"content\"></div>", Collections.emptyMap());
+    getCefBrowser().executeJavaScript("window.scrollTo(0, 0);", getCefBrowser().getURL(), 0);
+  }
+
+  /**
+   * Forget the editor when the panel is returned to the {@link AsciiDocJCEFHtmlPanelPool}, so that an idle panel
+   * doesn't keep a closed editor and its project in memory. The content stays, so that the document can be shown again immediately.
+   */
+  void detach() {
+    editor = null;
+    forceRefreshCallback = () -> {
+    };
+  }
+
   @Override
   public void printToPdf(String target, Consumer<Boolean> success) {
     getCefBrowser().printToPDF(target, null, (s, b) -> success.accept(b));
@@ -132,8 +174,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   private JBCefJSQuery myCopyCode;
   private JBCefJSQuery myRunCode;
   private JBCefJSQuery myIsApplicable;
-  private volatile CountDownLatch rendered = new CountDownLatch(1);
-  private volatile CountDownLatch replaceResultLatch = new CountDownLatch(1);
+  private JBCefJSQuery myLineIndex;
   private final CefLoadHandler myCefLoadHandler;
 
   @NotNull
@@ -145,8 +186,15 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   private volatile int line;
   private volatile boolean forceRefresh = true;
   private volatile long stamp = 0;
-  private volatile boolean replaceResult = false;
-  private volatile String frameHtml = null;
+  /**
+   * Position of the blocks in the preview, or <code>null</code> until the browser reported it for the current content.
+   */
+  private volatile AsciiDocLineIndex lineIndex;
+  /**
+   * The page without its content, and the key it has been prepared for.
+   */
+  private volatile Frame frame = null;
+  private volatile FrameKey frameKey = null;
 
   @NotNull
   private static final String OUR_CLASS_URL;
@@ -163,6 +211,9 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("mouseEvents.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("copyCodeBlock.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("runCodeBlock.js")).append("\"></script>\n")
+      .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("patchContent.js")).append("\"></script>\n")
+      .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("lazyContent.js")).append("\"></script>\n")
+      .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("lineIndex.js")).append("\"></script>\n")
       .append("""
         <script type="text/x-mathjax-config">
         MathJax.Hub.Config({
@@ -220,6 +271,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
 
     this.document = document;
 
+    this.forceRefreshCallback = forceRefresh;
+
     registerHandlers();
 
     myCefLoadHandler = new CefLoadHandlerAdapter() {
@@ -235,7 +288,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
         if (browser.getURL() != null && !browser.getURL().startsWith("file:///jbcefbrowser/")) {
           LOG.warn("Noticed that the user navigated to " + browser.getURL() + ", resetting the preview");
           previousDigest = null;
-          forceRefresh.run();
+          forceRefreshCallback.run();
         }
       }
     };
@@ -293,12 +346,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
         // don't queue old content as it might overtake the setHtml() when is added as deferred content
         ApplicationManager.getApplication().executeOnPooledThread(() -> {
           if (stamp == 0) {
-            synchronized (this) {
-              if (stamp == 0) {
-                // ensure that this is still the first call; avoid to overwrite a different text
-                setHtml("<div id=\"content\">Initializing...</div>", Collections.emptyMap());
-              }
-            }
+            // ensure that this is still the first call; avoid to overwrite a different text
+            setHtml("<div id=\"content\">Initializing...</div>", Collections.emptyMap(), true);
           }
         });
       }
@@ -319,6 +368,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     myCopyCode = JBCefJSQuery.create((JBCefBrowserBase) this);
     myRunCode = JBCefJSQuery.create((JBCefBrowserBase) this);
     myIsApplicable = JBCefJSQuery.create((JBCefBrowserBase) this);
+    myLineIndex = JBCefJSQuery.create((JBCefBrowserBase) this);
 
     myJSQuerySetScrollY.addHandler((scrollY) -> {
       try {
@@ -335,14 +385,10 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       try {
         if (r != null && r.length() > 0 && !r.equals("undefined")) {
           long iterationStamp = Integer.parseInt(r);
-          if (stamp == iterationStamp) {
-            rendered.countDown();
-          }
+          onRendered(iterationStamp);
         } else if (r != null && r.equals("undefined")) {
           // TODO: find out why the first result is undefined
-          if (stamp == 1) {
-            rendered.countDown();
-          }
+          onRendered(1);
         }
       } catch (NumberFormatException e) {
         LOG.warn("unable set iteration stamp", e);
@@ -351,9 +397,12 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     });
 
     myRenderedResult.addHandler((r) -> {
-      if (r != null && r.length() > 0) {
-        replaceResult = Boolean.parseBoolean(r);
-        replaceResultLatch.countDown();
+      try {
+        if (r != null && r.indexOf(':') != -1) {
+          onReplaceResult(Boolean.parseBoolean(r.substring(0, r.indexOf(':'))), Long.parseLong(r.substring(r.indexOf(':') + 1)));
+        }
+      } catch (NumberFormatException e) {
+        LOG.warn("unable to parse replace result", e);
       }
       return null;
     });
@@ -468,6 +517,13 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       return null;
     });
 
+    myLineIndex.addHandler((table) -> {
+      if (table != null) {
+        lineIndex = AsciiDocLineIndex.parse(table);
+      }
+      return null;
+    });
+
     myIsApplicable.addHandler((String lang) -> {
       if (lang == null || lang.isEmpty()) {
         return new JBCefJSQuery.Response("Empty language", 0, "Empty language");
@@ -554,6 +610,10 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       myIsApplicable.clearHandlers();
       Disposer.dispose(myIsApplicable);
     }
+    if (myLineIndex != null) {
+      myLineIndex.clearHandlers();
+      Disposer.dispose(myLineIndex);
+    }
   }
 
   @Nullable
@@ -730,140 +790,295 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   private volatile boolean hasLoadedOnce = false;
   private byte[] previousDigest;
 
+  /**
+   * A new version of the content, prepared for the browser.
+   */
+  private static final class Update {
+    private final Frame frame;
+    private final String html;
+    private final boolean inPlace;
+    private final boolean empty;
+    private long stamp;
+    private boolean inPlaceSent;
+    private boolean resultReceived;
+    private ScheduledFuture<?> timeout;
+
+    private Update(Frame frame, String html, boolean inPlace, boolean empty) {
+      this.frame = frame;
+      this.html = html;
+      this.inPlace = inPlace;
+      this.empty = empty;
+    }
+  }
+
+  private final Object myUpdateLock = new Object();
+
+  /**
+   * Update sent to the browser that hasn't been rendered yet.
+   */
+  private Update myInFlight;
+
+  /**
+   * Latest update waiting for the update in flight. When another update arrives, it replaces this one,
+   * so that the browser doesn't fall behind when the content changes faster than the browser can render it.
+   */
+  private Update myPending;
+
+  private Frame myShownFrame;
+
+  /**
+   * Send new content to the browser. This doesn't wait for the browser to render the content:
+   * while the browser is busy, only the latest content is kept and sent once the browser has finished the previous content.
+   */
   @Override
-  public synchronized void setHtml(@NotNull String htmlParam, @NotNull Map<String, String> attributes) {
+  public void setHtml(@NotNull String htmlParam, @NotNull Map<String, String> attributes) {
+    setHtml(htmlParam, attributes, false);
+  }
+
+  /**
+   * @param placeholder content that is shown only if no other content has been set yet
+   */
+  private void setHtml(@NotNull String htmlParam, @NotNull Map<String, String> attributes, boolean placeholder) {
     if (isDisposed()) {
       return;
     }
-    rendered = new CountDownLatch(1);
-    replaceResultLatch = new CountDownLatch(1);
-    stamp += 1;
-    if (stamp > 10000) {
-      // force a refresh to avoid memory leaks
-      forceRefresh = true;
-      stamp = 0;
+    Frame pageFrame;
+    synchronized (this) {
+      pageFrame = getFrame(htmlParam, attributes);
+    }
+    // only the content is prepared on each refresh, the frame around it is re-used
+    String preparedHtml = prepareHtml(htmlParam, attributes);
+    if (Registry.is("asciidoc.preview.lazy", false)) {
+      // for large documents, send only the sections around the current line, and the others once they scroll into view
+      preparedHtml = AsciiDocLazyContent.defer(preparedHtml, line);
+    }
+    Update update = new Update(pageFrame, preparedHtml, htmlParam.contains("id=\"content\""), htmlParam.isEmpty());
+    synchronized (myUpdateLock) {
+      if (placeholder && (stamp != 0 || myInFlight != null || myPending != null)) {
+        return;
+      }
+      if (myInFlight != null) {
+        myPending = update;
+        return;
+      }
+      myInFlight = update;
+    }
+    send(update);
+  }
+
+  private void send(@NotNull Update update) {
+    if (isDisposed()) {
+      return;
+    }
+    synchronized (myUpdateLock) {
+      stamp += 1;
+      if (stamp > 10000) {
+        // force a refresh to avoid memory leaks
+        forceRefresh = true;
+        stamp = 0;
+      }
+      update.stamp = stamp;
     }
-    long iterationStamp = stamp;
-    String emptyFrame = prepareHtml(wrapHtmlForPage("<!--start-->" + htmlParam + "<!--end-->"), attributes).replaceAll("(?ms)<!--start-->.*<!--end-->", "");
-    if (!emptyFrame.equals(frameHtml)) {
+    if (!update.frame.equals(myShownFrame)) {
       forceRefresh = true;
-      frameHtml = emptyFrame;
+      myShownFrame = update.frame;
     }
-    String html = htmlParam;
-    boolean result = false;
     final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
-    if (hasLoadedOnce && !forceRefresh && settings.getAsciiDocPreviewSettings().isInplacePreviewRefresh() && html.contains("id=\"content\"")) {
-      String preparedHtml = prepareHtml(html, attributes);
+    if (hasLoadedOnce && !forceRefresh && settings.getAsciiDocPreviewSettings().isInplacePreviewRefresh() && update.inPlace) {
       // If the HTML is identical, don't replace the preview
       try {
         MessageDigest md = MessageDigest.getInstance("MD5");
-        md.update(preparedHtml.getBytes(StandardCharsets.UTF_8));
+        md.update(update.html.getBytes(StandardCharsets.UTF_8));
         byte[] digest = md.digest();
         if (Arrays.equals(digest, previousDigest)) {
+          complete(update);
           return;
         }
         previousDigest = digest;
       } catch (NoSuchAlgorithmException e) {
         // ignored
       }
-      final String htmlToReplace = StringEscapeUtils.escapeEcmaScript(preparedHtml);
       // try to replace the HTML contents using JavaScript to avoid flickering MathML
       try {
-        replaceResult = false;
-        getCefBrowser().executeJavaScript(
-          "function finish() {" +
-            "if (window.mermaid !== undefined) window.mermaid.run(); " +
-            "if (window.initTabs !== undefined) window.initTabs(); " +
-            "if ('__IntelliJTools' in window) {" +
-            "__IntelliJTools.processLinks && __IntelliJTools.processLinks();" +
-            "__IntelliJTools.processImages && __IntelliJTools.processImages();" +
-            "__IntelliJTools.pickSourceLine && __IntelliJTools.pickSourceLine(" + lineCount + ");" +
-            "__IntelliJTools.addCopyButtons && __IntelliJTools.addCopyButtons();" +
-            "__IntelliJTools.addRunButtons && __IntelliJTools.addRunButtons();" +
-            "}" +
-            "window.JavaPanelBridge && window.JavaPanelBridge.rendered(" + iterationStamp + ");" +
-            "}" +
-            "function updateContent() { " +
-            "var elem = document.getElementById('content'); if (elem && elem.parentNode) { " +
-            "var div = document.createElement('div');" +
-            "div.innerHTML = '" + htmlToReplace + "'; " +
-            "var errortext = document.getElementById('mathjaxerrortext'); " +
-            "var errorformula = document.getElementById('mathjaxerrorformula'); " +
-            "if (errorformula && errortext) { " +
-            "  errortext.textContent = ''; " +
-            "  errorformula.textContent = ''; " +
-            "} " +
-            "div.style.cssText = 'display: none'; " +
-            // need to add the element to the DOM as MathJAX will use document.getElementById in some places
-            "elem.appendChild(div); " +
-            "if(typeof hljs !== 'undefined') { [].slice.call(div.querySelectorAll('pre.highlight > code')).forEach(function (el) { hljs.highlightElement(el) }) } " +
-            // use MathJax to set the formulas in advance if formulas are present - this takes ~100ms
-            // re-evaluate the content element as it might have been replaced by a concurrent rendering
-            "if ('MathJax' in window && MathJax.Hub.getAllJax().length > 0) { " +
-            "MathJax.Hub.Typeset(div.firstChild, function() { " +
-            "var elem2 = document.getElementById('content'); " +
-            "__IntelliJTools.clearLinks && __IntelliJTools.clearLinks();" +
-            "__IntelliJTools.clearSourceLine && __IntelliJTools.clearSourceLine();" +
-            "__IntelliJTools.clearCopyButtons && __IntelliJTools.clearCopyButtons();" +
-            "__IntelliJTools.clearRunButtons && __IntelliJTools.clearRunButtons();" +
-            "elem2.parentNode.replaceChild(div.firstChild, elem2); " +
-            "finish(); }); } " +
-            // if no math was present before, replace contents, and do the MathJax typesetting afterwards in case Math has been added
-            "else { " +
-            "__IntelliJTools.clearLinks && __IntelliJTools.clearLinks();" +
-            "__IntelliJTools.clearSourceLine && __IntelliJTools.clearSourceLine();" +
-            "__IntelliJTools.clearCopyButtons && __IntelliJTools.clearCopyButtons();" +
-            "__IntelliJTools.clearRunButtons && __IntelliJTools.clearRunButtons();" +
-            "elem.parentNode.replaceChild(div.firstChild, elem); " +
-            "MathJax.Hub.Typeset(div.firstChild); " +
-            "finish(); " +
-            "} " +
-            "return true; } else { return false; }}; " + myRenderedResult.inject("updateContent()"),
-          getCefBrowser().getURL(), 0);
-        if (replaceResultLatch.await(2, TimeUnit.SECONDS)) {
-          result = replaceResult;
-        }
-      } catch (RuntimeException | InterruptedException e) {
+        update.inPlaceSent = true;
+        scheduleTimeout(update);
+        getCefBrowser().executeJavaScript(createUpdateScript(update.html, update.stamp), getCefBrowser().getURL(), 0);
+        return;
+      } catch (RuntimeException e) {
         // might happen when rendered output is not valid HTML due to passtrough content
         LOG.warn("unable to use JavaScript for update", e);
       }
     }
     // if not successful using JavaScript (like on first rendering attempt), set full content
-    if (!result) {
-      previousDigest = null;
-      forceRefresh = false;
-      html = html + "<script>window.iterationStamp=" + iterationStamp + ";</script>";
-      html = wrapHtmlForPage(html);
-      final String htmlToRender = prepareHtml(html, attributes);
-      loadHTML(htmlToRender);
-      getCefBrowser().setZoomLevel(uiZoom - 1);
+    loadFull(update);
+  }
+
+  private void loadFull(@NotNull Update update) {
+    update.inPlaceSent = false;
+    // the new page will report its own positions once it has loaded
+    lineIndex = null;
+    previousDigest = null;
+    forceRefresh = false;
+    if (!update.empty) {
+      scheduleTimeout(update);
     }
-    try {
-      // slow down the rendering of the next version of the preview until the rendering if the current version is complete
-      // this prevents us building up a queue that would lead to a lagging preview
-      if (htmlParam.length() > 0 && !rendered.await(3, TimeUnit.SECONDS)) {
-        // error handling only if:
-        // the preview has rendered once -- as we don't want to close a window that is opening
-        // this preview hasn't been disposed -- as this wouldn't make much sense
-        if (!this.isDisposed() && hasLoadedOnce) {
-          LOG.warn("rendering didn't complete in time, might be slow or broken");
-          forceRefresh = true;
-        }
+    loadHTML(update.frame.prefix() + update.html + "<script>window.iterationStamp=" + update.stamp + ";</script>" + update.frame.suffix());
+    getCefBrowser().setZoomLevel(uiZoom - 1);
+    if (update.empty) {
+      complete(update);
+    }
+  }
+
+  private void scheduleTimeout(@NotNull Update update) {
+    synchronized (myUpdateLock) {
+      if (update.timeout != null) {
+        update.timeout.cancel(false);
+      }
+      update.timeout = AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> onTimeout(update), 3, TimeUnit.SECONDS);
+    }
+  }
+
+  private void onTimeout(@NotNull Update update) {
+    synchronized (myUpdateLock) {
+      if (myInFlight != update) {
+        return;
+      }
+    }
+    if (update.inPlaceSent && !update.resultReceived) {
+      // the JavaScript didn't report back, set the full content instead
+      loadFull(update);
+      return;
+    }
+    // error handling only if:
+    // the preview has rendered once -- as we don't want to close a window that is opening
+    // this preview hasn't been disposed -- as this wouldn't make much sense
+    if (!this.isDisposed() && hasLoadedOnce) {
+      LOG.warn("rendering didn't complete in time, might be slow or broken");
+      forceRefresh = true;
+    }
+    complete(update);
+  }
+
+  /**
+   * Mark the update as rendered, and send the update that has been waiting for it.
+   */
+  private void complete(@NotNull Update update) {
+    Update next;
+    synchronized (myUpdateLock) {
+      if (myInFlight != update) {
+        return;
+      }
+      if (update.timeout != null) {
+        update.timeout.cancel(false);
+      }
+      next = myPending;
+      myPending = null;
+      myInFlight = next;
+    }
+    if (next != null) {
+      ApplicationManager.getApplication().executeOnPooledThread(() -> send(next));
+    }
+  }
+
+  /**
+   * Called from the browser once it rendered the content with the given stamp.
+   */
+  private void onRendered(long iterationStamp) {
+    Update update;
+    synchronized (myUpdateLock) {
+      update = myInFlight;
+    }
+    if (update != null && update.stamp == iterationStamp) {
+      complete(update);
+    }
+  }
+
+  /**
+   * Called from the browser with the result of replacing the content via JavaScript.
+   */
+  private void onReplaceResult(boolean result, long iterationStamp) {
+    Update update;
+    synchronized (myUpdateLock) {
+      update = myInFlight;
+      if (update == null || update.stamp != iterationStamp || !update.inPlaceSent) {
+        return;
       }
-    } catch (InterruptedException e) {
-      LOG.warn("interrupted while waiting for refresh to complete");
+      update.resultReceived = true;
+    }
+    if (!result) {
+      ApplicationManager.getApplication().executeOnPooledThread(() -> loadFull(update));
     }
   }
 
+  @NotNull
+  private String createUpdateScript(@NotNull String preparedHtml, long iterationStamp) {
+    final String htmlToReplace = StringEscapeUtils.escapeEcmaScript(preparedHtml);
+    final boolean patchContent = Registry.is("asciidoc.preview.patch", true);
+    return
+      // when called with the nodes inserted by patchContent(), only these nodes are processed
+      "function finish(nodes) {" +
+        "if (window.mermaid !== undefined) window.mermaid.run(); " +
+        "if (window.initTabs !== undefined) window.initTabs(nodes && __IntelliJTools.findAll(nodes, '.tabs')); " +
+        "if ('__IntelliJTools' in window) {" +
+        "__IntelliJTools.processLinks && __IntelliJTools.processLinks(nodes);" +
+        "__IntelliJTools.processImages && __IntelliJTools.processImages(nodes);" +
+        "__IntelliJTools.pickSourceLine && __IntelliJTools.pickSourceLine(" + lineCount + ", nodes);" +
+        "__IntelliJTools.addCopyButtons && __IntelliJTools.addCopyButtons(nodes);" +
+        "__IntelliJTools.addRunButtons && __IntelliJTools.addRunButtons(nodes);" +
+        "__IntelliJTools.observeLazy && __IntelliJTools.observeLazy();" +
+        "__IntelliJTools.lineIndex && __IntelliJTools.lineIndex.invalidate();" +
+        "}" +
+        "window.JavaPanelBridge && window.JavaPanelBridge.rendered(" + iterationStamp + ");" +
+        "}" +
+        "function updateContent() { " +
+        "var html = '" + htmlToReplace + "'; " +
+        // replace only the blocks that changed, this keeps the state of the other blocks and is a lot faster for large documents
+        (patchContent ? "if ('__IntelliJTools' in window && __IntelliJTools.patchContent && __IntelliJTools.patchContent(html, finish)) { return true; } " : "") +
+        "var elem = document.getElementById('content'); if (elem && elem.parentNode) { " +
+        "var div = document.createElement('div');" +
+        "div.innerHTML = html; " +
+        // remember the blocks before highlighting and typesetting modifies them, so that the next update can patch them
+        "__IntelliJTools.rememberContent && __IntelliJTools.rememberContent(div.firstChild); " +
+        "var errortext = document.getElementById('mathjaxerrortext'); " +
+        "var errorformula = document.getElementById('mathjaxerrorformula'); " +
+        "if (errorformula && errortext) { " +
+        "  errortext.textContent = ''; " +
+        "  errorformula.textContent = ''; " +
+        "} " +
+        "div.style.cssText = 'display: none'; " +
+        // need to add the element to the DOM as MathJAX will use document.getElementById in some places
+        "elem.appendChild(div); " +
+        "if(typeof hljs !== 'undefined') { [].slice.call(div.querySelectorAll('pre.highlight > code')).forEach(function (el) { hljs.highlightElement(el) }) } " +
+        // use MathJax to set the formulas in advance if formulas are present - this takes ~100ms
+        // re-evaluate the content element as it might have been replaced by a concurrent rendering
+        "if ('MathJax' in window && MathJax.Hub.getAllJax().length > 0) { " +
+        "MathJax.Hub.Typeset(div.firstChild, function() { " +
+        "var elem2 = document.getElementById('content'); " +
+        "__IntelliJTools.clearLinks && __IntelliJTools.clearLinks();" +
+        "__IntelliJTools.clearSourceLine && __IntelliJTools.clearSourceLine();" +
+        "__IntelliJTools.clearCopyButtons && __IntelliJTools.clearCopyButtons();" +
+        "__IntelliJTools.clearRunButtons && __IntelliJTools.clearRunButtons();" +
+        "elem2.parentNode.replaceChild(div.firstChild, elem2); " +
+        "finish(); }); } " +
+        // if no math was present before, replace contents, and do the MathJax typesetting afterwards in case Math has been added
+        "else { " +
+        "__IntelliJTools.clearLinks && __IntelliJTools.clearLinks();" +
+        "__IntelliJTools.clearSourceLine && __IntelliJTools.clearSourceLine();" +
+        "__IntelliJTools.clearCopyButtons && __IntelliJTools.clearCopyButtons();" +
+        "__IntelliJTools.clearRunButtons && __IntelliJTools.clearRunButtons();" +
+        "elem.parentNode.replaceChild(div.firstChild, elem); " +
+        "MathJax.Hub.Typeset(div.firstChild); " +
+        "finish(); " +
+        "} " +
+        "return true; } else { return false; }}; " + myRenderedResult.inject("updateContent() + ':" + iterationStamp + "'");
+  }
+
   @NotNull
   private static String getScriptingLines() {
     return MY_SCRIPTING_LINES.getValue();
   }
 
   private static final Pattern ESCAPED_COLON = Pattern.compile("%3A");
-  private static final Pattern IMAGE_FROM_ANTORA = Pattern.compile("<img src=\"file:///([^\"?]*)\"");
-  private static final Pattern IMAGE_RELATIVE = Pattern.compile("<img src=\"([^:\"]*)\"");
-  private static final Pattern IMAGE_AS_OBJECT = Pattern.compile("<object ([^>])*data=\"([^:\"]*)\"");
 
   private String getBase() {
     VirtualFile parentDirectory = getParentDirectory();
@@ -888,122 +1103,145 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     return parentDirectory;
   }
 
+  /**
+   * Page around the content: stylesheets, scripts and the CSP meta tag.
+   */
+  private record Frame(@NotNull String prefix, @NotNull String suffix) {
+  }
+
+  /**
+   * Everything the frame depends on. The frame depends on the content only via the elements that need additional scripts.
+   */
+  private record FrameKey(@NotNull Map<String, String> attributes, boolean darcula, boolean antora, boolean mermaid, boolean tabs,
+                          boolean builtInMermaid, boolean kroki, @Nullable String krokiUrl) {
+  }
+
+  private static final String MERMAID_ELEMENT = "<pre class=\"mermaid\">";
+  private static final String TABS_ELEMENT = "<div class=\"ulist tablist\">";
+
+  /**
+   * Attributes used by {@link AsciiDocWrapper#enrichPage} and {@link PreviewStaticServer#createCSP} for the frame.
+   */
+  private static final List<String> FRAME_ATTRIBUTES = List.of("doctype", "toc", "toc-class", "toc-position", "stylesheet", "linkcss", "stylesdir",
+    "docdir", "docfile", "docname", "source-highlighter", "highlightjs-theme", "highlightjsdir", "highlightjs-languages", "safe-mode-level",
+    "kroki-server-url");
+
+  private Frame getFrame(@NotNull String html, @NotNull Map<String, String> attributes) {
+    boolean mermaid = html.contains(MERMAID_ELEMENT);
+    boolean tabs = html.contains(TABS_ELEMENT);
+    FrameKey key = null;
+    // docinfo files and stylesheets included in the page might change at any time, and docinfo files might use any attribute
+    if (attributes.get("docinfo") == null && (attributes.get("stylesheet") == null || attributes.get("linkcss") != null)) {
+      Map<String, String> frameAttributes = new HashMap<>();
+      for (String name : FRAME_ATTRIBUTES) {
+        String value = attributes.get(name);
+        if (value != null) {
+          frameAttributes.put(name, value);
+        }
+      }
+      AsciiDocPreviewSettings previewSettings = AsciiDocApplicationSettings.getInstance().getAsciiDocPreviewSettings();
+      key = new FrameKey(frameAttributes, isDarcula(), isAntora(), mermaid, tabs, previewSettings.isEnableBuiltInMermaid(),
+        previewSettings.isKrokiEnabled(), previewSettings.getKrokiUrl());
+    }
+    Frame result = frame;
+    if (key != null && result != null && key.equals(frameKey)) {
+      return result;
+    }
+    String page = prepareHtml(wrapHtmlForPage("<!--start-->" + (mermaid ? MERMAID_ELEMENT : "") + (tabs ? TABS_ELEMENT : "") + "<!--end-->"), attributes);
+    int start = page.indexOf("<!--start-->");
+    int end = page.indexOf("<!--end-->") + "<!--end-->".length();
+    result = new Frame(page.substring(0, start), page.substring(end));
+    frame = result;
+    frameKey = key;
+    return result;
+  }
+
   private String prepareHtml(@NotNull String html, @NotNull Map<String, String> attributes) {
-    // Antora plugin might resolve some absolute URLs, convert them to local file, so they get their MD5 that prevents caching
+    // rewrite the URLs of the content only, the docinfo files added by enrichPage() keep their URLs
     String baseForHtml = ESCAPED_COLON.matcher(getBase()).replaceAll(":");
-    Matcher matcher = IMAGE_FROM_ANTORA.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String file = matchResult.group(1);
+    html = AsciiDocHtmlRewriter.rewrite(html, (kind, url) -> rewriteUrl(kind, url, baseForHtml, attributes), null, null);
+
+    if (isAntora()) {
+      html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + AsciiDocHtmlPanel.getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
+    } else {
+      html = AsciiDocWrapper.enrichPage(html, AsciiDocHtmlPanel.getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myDroidSansMonoCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
+    }
+
+    /* Add JavaScript for auto-scolling and clickable links */
+    return AsciiDocHtmlRewriter.rewrite(html, AsciiDocHtmlRewriter.KEEP_URLS,
+      "\n<meta http-equiv=\"Content-Security-Policy\" content=\"" + PreviewStaticServer.createCSP(attributes) + "\">",
+      getScriptingLines());
+  }
+
+  @Nullable
+  private String rewriteUrl(@NotNull AsciiDocHtmlRewriter.Kind kind, @NotNull String url, @NotNull String baseForHtml, @NotNull Map<String, String> attributes) {
+    String file;
+    if (kind == AsciiDocHtmlRewriter.Kind.IMAGE && url.startsWith("file:///") && url.indexOf('?') == -1) {
+      // Antora plugin might resolve some absolute URLs, convert them to local file, so they get their MD5 that prevents caching
+      file = url.substring("file:///".length());
       try {
         file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
       } catch (IllegalArgumentException e) {
         // ignored, this must be a manually entered URL with a percentage sign
-        continue;
+        return null;
       }
       String tmpFile = findTempImageFile(file, null);
-      String md5;
-      String replacement;
       if (tmpFile != null) {
-        md5 = calculateMd5(tmpFile, null);
         tmpFile = tmpFile.replaceAll("\\\\", "/");
-        replacement = "<img src=\"file://" + tmpFile + "?" + md5 + "\"";
+        return "file://" + tmpFile + "?" + calculateMd5(tmpFile, null);
+      } else {
+        return "file://" + baseForHtml + "/" + file + "?" + calculateMd5(file, baseForHtml);
+      }
+    }
+    if (kind == AsciiDocHtmlRewriter.Kind.LINK || url.indexOf(':') != -1) {
+      return null;
+    }
+    try {
+      file = URLDecoder.decode(url, StandardCharsets.UTF_8); // restore "%20" as " "
+    } catch (IllegalArgumentException e) {
+      // ignored, this must be a manually entered URL with a percentage sign
+      return null;
+    }
+    if (kind == AsciiDocHtmlRewriter.Kind.OBJECT) {
+      /* the same as for images for interactive SVGs */
+      String tmpFile = findTempImageFile(file, attributes.get("imagesdir"));
+      if (tmpFile != null) {
+        return "file://" + tmpFile + "?" + calculateMd5(tmpFile, null);
       } else {
-        md5 = calculateMd5(file, baseForHtml);
-        replacement = "<img src=\"file://" + baseForHtml + "/" + file + "?" + md5 + "\"";
+        return "file://" + baseForHtml + "/" + file + "?" + calculateMd5(file, baseForHtml);
       }
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
     }
 
     /* for each image we'll calculate a MD5 sum of its content. Once the content changes, MD5 and therefore the URL
      * will change. The changed URL is necessary for the JavaFX web view to display the new content, as each URL
      * will be loaded only once by the JavaFX web view. */
-    matcher = IMAGE_RELATIVE.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String file = matchResult.group(1);
-      try {
-        file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
-      } catch (IllegalArgumentException e) {
-        // ignored, this must be a manually entered URL with a percentage sign
-        continue;
-      }
-      String replacement = null;
-      String tmpFile = findTempImageFile(file, attributes.get("imagesdir"));
-      if (tmpFile != null) {
-        replacement = calculateFileAndMd5(tmpFile, null);
-      }
-      if (replacement == null) {
-        replacement = calculateFileAndMd5(file, baseForHtml);
-      }
-      if (replacement == null && file.startsWith("/") && editor != null) {
-        VirtualFile hugoStaticFile = AsciiDocUtil.findHugoStaticFolder(editor.getProject(), getParentDirectory());
-        if (hugoStaticFile != null) {
-          replacement = calculateFileAndMd5(file.substring(1), hugoStaticFile.getCanonicalPath());
-        }
-      }
-      if (replacement == null && attributes.get("imagesdir") != null && attributes.get("imagesdir").length() > 0 && file.startsWith("/")) {
-        // For image file names starting with a slash, the imagesdir is not being added automatically.
-        // Try to use it to find the file - imagesdir might be relative to the base directory, or an absolute path.
-        replacement = calculateFileAndMd5(attributes.get("imagesdir") + file, baseForHtml);
-        if (replacement == null) {
-          replacement = calculateFileAndMd5(file, attributes.get("imagesdir"));
-        }
+    String replacement = null;
+    String tmpFile = findTempImageFile(file, attributes.get("imagesdir"));
+    if (tmpFile != null) {
+      replacement = calculateFileAndMd5(tmpFile, null);
+    }
+    if (replacement == null) {
+      replacement = calculateFileAndMd5(file, baseForHtml);
+    }
+    if (replacement == null && file.startsWith("/") && editor != null) {
+      VirtualFile hugoStaticFile = AsciiDocUtil.findHugoStaticFolder(editor.getProject(), getParentDirectory());
+      if (hugoStaticFile != null) {
+        replacement = calculateFileAndMd5(file.substring(1), hugoStaticFile.getCanonicalPath());
       }
+    }
+    if (replacement == null && attributes.get("imagesdir") != null && attributes.get("imagesdir").length() > 0 && file.startsWith("/")) {
+      // For image file names starting with a slash, the imagesdir is not being added automatically.
+      // Try to use it to find the file - imagesdir might be relative to the base directory, or an absolute path.
+      replacement = calculateFileAndMd5(attributes.get("imagesdir") + file, baseForHtml);
       if (replacement == null) {
-        // some fallback
-        replacement = baseForHtml + "/" + file + "?none";
-      }
-      replacement = "<img src=\"file://" + replacement + "\"";
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
-    }
-
-    /* the same as above for interactive SVGs */
-    matcher = IMAGE_AS_OBJECT.matcher(html);
-    while (matcher.find()) {
-      final MatchResult matchResult = matcher.toMatchResult();
-      String other = matchResult.group(1);
-      if (other == null) {
-        other = "";
-      }
-      String file = matchResult.group(2);
-      try {
-        file = URLDecoder.decode(file, StandardCharsets.UTF_8); // restore "%20" as " "
-      } catch (IllegalArgumentException e) {
-        // ignored, this must be a manually entered URL with a percentage sign
-        continue;
+        replacement = calculateFileAndMd5(file, attributes.get("imagesdir"));
       }
-      String tmpFile = findTempImageFile(file, attributes.get("imagesdir"));
-      String md5;
-      String replacement;
-      if (tmpFile != null) {
-        md5 = calculateMd5(tmpFile, null);
-        replacement = "<object " + other + "data=\"file://" + tmpFile + "?" + md5 + "\"";
-      } else {
-        md5 = calculateMd5(file, baseForHtml);
-        replacement = "<object " + other + "data=\"file://" + baseForHtml + "/" + file + "?" + md5 + "\"";
-      }
-      html = html.substring(0, matchResult.start()) +
-        replacement + html.substring(matchResult.end());
-      matcher.reset(html);
     }
-
-    if (isAntora()) {
-      html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + AsciiDocHtmlPanel.getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
-    } else {
-      html = AsciiDocWrapper.enrichPage(html, AsciiDocHtmlPanel.getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myDroidSansMonoCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
+    if (replacement == null) {
+      // some fallback
+      replacement = baseForHtml + "/" + file + "?none";
     }
-
-    html = html.replaceAll("<head>", "<head>\n" +
-      "<meta http-equiv=\"Content-Security-Policy\" content=\"" + PreviewStaticServer.createCSP(attributes) + "\">");
-
-    /* Add JavaScript for auto-scolling and clickable links */
-    return html
-      .replace("</body>", getScriptingLines() + "</body>");
+    return "file://" + replacement;
   }
 
   private synchronized boolean isAntora() {
@@ -1077,21 +1315,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
 
   // use pattern for %3A, and move that to the caller
   private String calculateMd5(String file, String baseForHtml) {
-    String md5;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      try (FileInputStream fis = new FileInputStream((baseForHtml != null ? baseForHtml + "/" : "") + file)) {
-        int nread;
-        byte[] dataBytes = new byte[10240];
-        while ((nread = fis.read(dataBytes)) != -1) {
-          md.update(dataBytes, 0, nread);
-        }
-      }
-      md5 = new BigInteger(1, md.digest()).toString(16);
-    } catch (NoSuchAlgorithmException | IOException e) {
-      md5 = "none";
-    }
-    return md5;
+    String md5 = AsciiDocImageFingerprint.getInstance().getFingerprint((baseForHtml != null ? baseForHtml + "/" : "") + file);
+    return md5 != null ? md5 : "none";
   }
 
   @NotNull
@@ -1132,10 +1357,19 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
    */
   private void scrollToLineInBrowser(int line, int lineCount) {
     try {
-      getCefBrowser().executeJavaScript(
-        "if ('__IntelliJTools' in window) " +
-          "__IntelliJTools.scrollToLine(" + line + ", " + lineCount + ");",
-        getCefBrowser().getURL(), 0);
+      AsciiDocLineIndex index = lineIndex;
+      if (index != null) {
+        // use the position reported by the browser, so that the browser doesn't need to search and measure the blocks again
+        getCefBrowser().executeJavaScript(
+          "if ('__IntelliJTools' in window && __IntelliJTools.scrollToOffset) " +
+            "__IntelliJTools.scrollToOffset(" + index.getOffset(line, lineCount) + ", " + line + ");",
+          getCefBrowser().getURL(), 0);
+      } else {
+        getCefBrowser().executeJavaScript(
+          "if ('__IntelliJTools' in window) " +
+            "__IntelliJTools.scrollToLine(" + line + ", " + lineCount + ");",
+          getCefBrowser().getURL(), 0);
+      }
 
       getCefBrowser().executeJavaScript(
         "var value = document.documentElement.scrollTop || document.body.scrollTop;" +
@@ -1208,6 +1442,9 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
             "scrollEditorToLine : function(sourceLine) {" +
             myScrollEditorToLine.inject("sourceLine") +
             "}," +
+            "lineIndex : function(table) {" +
+            myLineIndex.inject("table") +
+            "}," +
             "zoomDelta : function(deltaY) {" +
             myZoomDelta.inject("deltaY") +
             "}," +
@@ -1234,6 +1471,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
             "__IntelliJTools.addMouseHandler && __IntelliJTools.addMouseHandler();" +
             "__IntelliJTools.addCopyButtons && __IntelliJTools.addCopyButtons();" +
             "__IntelliJTools.addRunButtons && __IntelliJTools.addRunButtons();" +
+            "__IntelliJTools.observeLazy && __IntelliJTools.observeLazy();" +
+            "__IntelliJTools.lineIndex && __IntelliJTools.lineIndex.invalidate();" +
             "}; " +
             "JavaPanelBridge.rendered(window.iterationStamp);",
           getCefBrowser().getURL(), 0);
@@ -1286,7 +1525,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     );
   }
 
-  private static boolean isOffScreenRenderingEnabled() {
+  static boolean isOffScreenRenderingEnabled() {
     return Registry.is("ide.browser.jcef.asciidocView.osr.enabled", true) && JBCefApp.isOffScreenRenderingModeEnabled();
   }
 
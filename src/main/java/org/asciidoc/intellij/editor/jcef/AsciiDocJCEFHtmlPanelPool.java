@@ -0,0 +1,187 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectCloseListener;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.LowMemoryWatcher;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.util.messages.MessageBusConnection;
+import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps the JCEF previews of deselected editors, and one additional preview with its page already loaded,
+ * so that switching between editors doesn't need to start a new browser and load all stylesheets and scripts each time.
+ * A preview returned by an editor still shows the content of its document, therefore an editor that is selected again
+ * shows its preview immediately.
+ * The number of idle previews is configured via the registry key <code>asciidoc.preview.pool.size</code>.
+ * Idle previews are disposed when the IDE runs low on memory, when the settings of the preview change, or when a project is closed.
+ * Only previews using off-screen rendering are kept, as a native browser window can't be moved to another editor.
+ */
+@Service
+public final class AsciiDocJCEFHtmlPanelPool implements Disposable {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocJCEFHtmlPanelPool.class);
+
+  /**
+   * Most recently returned previews first.
+   */
+  private final Deque<AsciiDocJCEFHtmlPanel> idle = new ArrayDeque<>();
+  private boolean warmUpScheduled;
+  private boolean disposed;
+
+  public AsciiDocJCEFHtmlPanelPool() {
+    LowMemoryWatcher.register(this::clear, this);
+    MessageBusConnection connection = ApplicationManager.getApplication().getMessageBus().connect(this);
+    connection.subscribe(AsciiDocApplicationSettings.SettingsChangedListener.TOPIC, settings -> clear());
+    connection.subscribe(ProjectCloseListener.TOPIC, new ProjectCloseListener() {
+      @Override
+      public void projectClosing(@NotNull Project project) {
+        // the documents of idle previews might belong to the project
+        clear();
+      }
+    });
+  }
+
+  public static AsciiDocJCEFHtmlPanelPool getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocJCEFHtmlPanelPool.class);
+  }
+
+  private static int getSize() {
+    return Registry.intValue("asciidoc.preview.pool.size", 2);
+  }
+
+  public static boolean isEnabled() {
+    return getSize() > 0 && AsciiDocJCEFHtmlPanel.isOffScreenRenderingEnabled();
+  }
+
+  /**
+   * Only keep idle previews while at least a quarter of the heap is available.
+   */
+  private static boolean hasMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = runtime.totalMemory() - runtime.freeMemory();
+    return runtime.maxMemory() - used > runtime.maxMemory() / 4;
+  }
+
+  /**
+   * Return a preview for the document. This prefers the preview that showed the document before, then a preview with its page already loaded,
+   * and creates a new preview only if no preview is available.
+   */
+  @NotNull
+  public AsciiDocJCEFHtmlPanel lease(@NotNull Document document, Path imagesPath, Runnable forceRefresh) {
+    ApplicationManager.getApplication().assertIsDispatchThread();
+    AsciiDocJCEFHtmlPanel panel = null;
+    synchronized (idle) {
+      for (Iterator<AsciiDocJCEFHtmlPanel> iterator = idle.iterator(); iterator.hasNext(); ) {
+        AsciiDocJCEFHtmlPanel candidate = iterator.next();
+        if (candidate.getDocument() == document) {
+          iterator.remove();
+          panel = candidate;
+          break;
+        }
+      }
+      if (panel == null) {
+        panel = idle.pollFirst();
+      }
+    }
+    if (panel == null) {
+      panel = new AsciiDocJCEFHtmlPanel(document, imagesPath, forceRefresh);
+    } else {
+      panel.attach(document, imagesPath, forceRefresh);
+    }
+    scheduleWarmUp();
+    return panel;
+  }
+
+  /**
+   * Take back a preview that is no longer shown. If the pool is full, the preview returned first is disposed.
+   */
+  public void release(@NotNull AsciiDocJCEFHtmlPanel panel) {
+    if (panel.isDisposed()) {
+      return;
+    }
+    panel.detach();
+    List<AsciiDocJCEFHtmlPanel> evicted = new ArrayList<>();
+    synchronized (idle) {
+      if (disposed || !hasMemory()) {
+        evicted.add(panel);
+      } else {
+        idle.addFirst(panel);
+        while (idle.size() > getSize()) {
+          evicted.add(idle.pollLast());
+        }
+      }
+    }
+    evicted.forEach(Disposer::dispose);
+  }
+
+  /**
+   * Create a preview in the background if there is no idle preview, so that the next editor can use it.
+   */
+  private void scheduleWarmUp() {
+    synchronized (idle) {
+      if (warmUpScheduled || !idle.isEmpty()) {
+        return;
+      }
+      warmUpScheduled = true;
+    }
+    ApplicationManager.getApplication().invokeLater(() -> {
+      synchronized (idle) {
+        warmUpScheduled = false;
+        if (disposed || !idle.isEmpty() || !isEnabled() || !hasMemory()) {
+          return;
+        }
+      }
+      try {
+        AsciiDocJCEFHtmlPanel panel = new AsciiDocJCEFHtmlPanel(EditorFactory.getInstance().createDocument(""), null, () -> {
+        });
+        // start the browser now, it would otherwise start only once it is shown
+        panel.getCefBrowser().createImmediately();
+        release(panel);
+      } catch (IllegalStateException ex) {
+        LOG.warn("unable to prepare a preview", ex);
+      }
+    }, ModalityState.nonModal());
+  }
+
+  /**
+   * Dispose all idle previews.
+   */
+  public void clear() {
+    List<AsciiDocJCEFHtmlPanel> evicted;
+    synchronized (idle) {
+      evicted = new ArrayList<>(idle);
+      idle.clear();
+    }
+    if (!evicted.isEmpty()) {
+      ApplicationManager.getApplication().invokeLater(() -> evicted.forEach(Disposer::dispose), ModalityState.any());
+    }
+  }
+
+  @Override
+  public void dispose() {
+    List<AsciiDocJCEFHtmlPanel> evicted;
+    synchronized (idle) {
+      disposed = true;
+      evicted = new ArrayList<>(idle);
+      idle.clear();
+    }
+    evicted.forEach(Disposer::dispose);
+  }
+
+}
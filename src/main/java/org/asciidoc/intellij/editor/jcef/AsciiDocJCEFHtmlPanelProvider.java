@@ -26,6 +26,9 @@ public class AsciiDocJCEFHtmlPanelProvider extends AsciiDocHtmlPanelProvider {
   @Override
   public AsciiDocHtmlPanel createHtmlPanel(Document document, Path imagesPath, Runnable forceRefresh) {
     clearStaleJCEFlock();
+    if (AsciiDocJCEFHtmlPanelPool.isEnabled()) {
+      return AsciiDocJCEFHtmlPanelPool.getInstance().lease(document, imagesPath, forceRefresh);
+    }
     return new AsciiDocJCEFHtmlPanel(document, imagesPath, forceRefresh);
   }
 
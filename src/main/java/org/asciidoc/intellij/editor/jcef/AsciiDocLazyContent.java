@@ -0,0 +1,150 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Defers the top-level sections of a large document that are far away from the current line.
+ * Each deferred section is sent to the browser as a placeholder with an estimated height, and the section itself is
+ * wrapped in a <code>template</code> element: the browser parses it, but doesn't lay it out, and highlight.js, MathJax and
+ * mermaid don't process it. Once the placeholder scrolls into view, <code>lazyContent.js</code> inserts the section.
+ * The placeholder keeps the source line of the section, so that scrolling the preview to a line still works.
+ */
+final class AsciiDocLazyContent {
+
+  /**
+   * Documents smaller than this are sent as they are, as the browser renders them fast enough.
+   */
+  static final int MIN_LENGTH = 512 * 1024;
+
+  /**
+   * Number of sections before and after the section of the current line that are sent as they are.
+   */
+  static final int KEEP = 2;
+
+  private static final String CONTENT = "<div id=\"content\"";
+  private static final String SECTION = "<div class=\"sect1";
+  private static final String DIV = "<div";
+  private static final String DIV_END = "</div>";
+  private static final Pattern SOURCE_LINE = Pattern.compile("has-source-line (data-line-[^\\s\"]*-(\\d+))(?=[\\s\"])");
+
+  private AsciiDocLazyContent() {
+  }
+
+  private record Section(int start, int end, String lineClass, int line) {
+  }
+
+  /**
+   * Replace sections far away from the current line by placeholders.
+   *
+   * @param line current line in the editor
+   * @return the content unchanged if it is small, or if its structure isn't as expected, for example due to passthrough content
+   */
+  @NotNull
+  static String defer(@NotNull String content, int line) {
+    if (content.length() < MIN_LENGTH) {
+      return content;
+    }
+    List<Section> sections = findSections(content);
+    if (sections == null || sections.size() <= 2 * KEEP + 1) {
+      return content;
+    }
+    int current = 0;
+    for (int i = 0; i < sections.size(); i++) {
+      if (sections.get(i).line() != -1 && sections.get(i).line() <= line) {
+        current = i;
+      }
+    }
+    StringBuilder sb = new StringBuilder(content.length() + sections.size() * 100);
+    int copied = 0;
+    for (int i = 0; i < sections.size(); i++) {
+      Section section = sections.get(i);
+      if (Math.abs(i - current) <= KEEP || section.lineClass() == null) {
+        continue;
+      }
+      sb.append(content, copied, section.start());
+      sb.append("<div class=\"asciidoc-lazy has-source-line ").append(section.lineClass())
+        .append("\" style=\"min-height: ").append(estimateHeight(section)).append("px\"><template>")
+        .append(content, section.start(), section.end())
+        .append("</template></div>");
+      copied = section.end();
+    }
+    sb.append(content, copied, content.length());
+    return sb.toString();
+  }
+
+  /**
+   * Height of the section in pixels, assuming about 160 characters of HTML for each line of text.
+   * The browser corrects the scroll position once it inserts a section above the visible area.
+   */
+  private static int estimateHeight(Section section) {
+    return Math.max(40, (section.end() - section.start()) / 6);
+  }
+
+  /**
+   * Find the top-level sections within the content element.
+   *
+   * @return <code>null</code> if the <code>div</code> elements are not balanced
+   */
+  @Nullable
+  private static List<Section> findSections(String content) {
+    int start = content.indexOf(CONTENT);
+    if (start == -1) {
+      return null;
+    }
+    int pos = content.indexOf('>', start);
+    if (pos == -1) {
+      return null;
+    }
+    List<Section> sections = new ArrayList<>();
+    int depth = 1;
+    int childStart = -1;
+    pos = content.indexOf('<', pos);
+    while (pos != -1) {
+      if (content.startsWith(DIV_END, pos)) {
+        --depth;
+        if (depth == 0) {
+          return sections;
+        }
+        if (depth == 1 && childStart != -1) {
+          sections.add(createSection(content, childStart, pos + DIV_END.length()));
+          childStart = -1;
+        }
+        pos += DIV_END.length();
+      } else if (content.startsWith(DIV, pos) && pos + DIV.length() < content.length()
+        && (content.charAt(pos + DIV.length()) == ' ' || content.charAt(pos + DIV.length()) == '>')) {
+        if (depth == 1 && content.startsWith(SECTION, pos)) {
+          childStart = pos;
+        }
+        ++depth;
+        pos += DIV.length();
+      } else {
+        ++pos;
+      }
+      pos = content.indexOf('<', pos);
+    }
+    // the content element is not closed
+    return null;
+  }
+
+  private static Section createSection(String content, int start, int end) {
+    int tagEnd = content.indexOf('>', start);
+    Matcher matcher = SOURCE_LINE.matcher(content).region(start, tagEnd);
+    if (!matcher.find()) {
+      return new Section(start, end, null, -1);
+    }
+    int line;
+    try {
+      line = matcher.group(1).startsWith("data-line-stdin-") ? Integer.parseInt(matcher.group(2)) : -1;
+    } catch (NumberFormatException e) {
+      line = -1;
+    }
+    return new Section(start, end, matcher.group(1), line);
+  }
+
+}
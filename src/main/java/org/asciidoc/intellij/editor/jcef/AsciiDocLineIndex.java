@@ -0,0 +1,126 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Position of the blocks of the main document in the preview, as reported by <code>lineIndex.js</code> after each change of
+ * the content or the layout. Scrolling the preview to the line of the caret then needs a binary search instead of
+ * searching and measuring all blocks in the browser on each move of the caret.
+ */
+final class AsciiDocLineIndex {
+
+  /**
+   * Lines of the blocks, sorted.
+   */
+  private final int[] lines;
+  private final int[] tops;
+  private final int[] heights;
+
+  /**
+   * If a block of an included file appears between the previous block and this block.
+   */
+  private final boolean[] includeBefore;
+
+  private AsciiDocLineIndex(int[] lines, int[] tops, int[] heights, boolean[] includeBefore) {
+    this.lines = lines;
+    this.tops = tops;
+    this.heights = heights;
+    this.includeBefore = includeBefore;
+  }
+
+  /**
+   * Parse the table sent by the browser.
+   *
+   * @param table entries of <code>line:top:height</code>, separated by commas, with line -1 for a block of an included file
+   * @return <code>null</code> if the table can't be parsed
+   */
+  @Nullable
+  static AsciiDocLineIndex parse(@NotNull String table) {
+    String[] entries = table.isEmpty() ? new String[0] : table.split(",");
+    int[] lines = new int[entries.length];
+    int[] tops = new int[entries.length];
+    int[] heights = new int[entries.length];
+    boolean[] includeBefore = new boolean[entries.length + 1];
+    int count = 0;
+    try {
+      for (String entry : entries) {
+        String[] parts = entry.split(":");
+        if (parts.length != 3) {
+          return null;
+        }
+        int line = Integer.parseInt(parts[0]);
+        if (line == -1) {
+          includeBefore[count] = true;
+          continue;
+        }
+        if (count > 0 && line < lines[count - 1]) {
+          return null;
+        }
+        lines[count] = line;
+        tops[count] = Integer.parseInt(parts[1]);
+        heights[count] = Integer.parseInt(parts[2]);
+        ++count;
+      }
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    // the flag after the last block is kept, but not used
+    return new AsciiDocLineIndex(Arrays.copyOf(lines, count), Arrays.copyOf(tops, count), Arrays.copyOf(heights, count),
+      Arrays.copyOf(includeBefore, count + 1));
+  }
+
+  /**
+   * Position of a line in the preview. The position is interpolated between the block that starts at or before the line,
+   * and the block that follows it. This is the same calculation as <code>__IntelliJTools.scrollToLine</code> does.
+   */
+  double getOffset(int line, int lineCount) {
+    if (line == 0) {
+      return 0;
+    }
+    // first block after the line
+    int end = upperBound(line);
+    int start = end - 1;
+    double startY = start >= 0 ? tops[start] : 0;
+    int startLine = start >= 0 ? lines[start] : 0;
+    double endY;
+    int endLine;
+    if (end < lines.length) {
+      if (includeBefore[end]) {
+        // if there is an include, place the view where we expect the beginning of the include
+        endY = startY;
+        endLine = startLine;
+      } else {
+        endY = tops[end];
+        endLine = lines[end] - 1;
+      }
+    } else if (start >= 0) {
+      // there is no further block, therefore assume that the end is at the end of this block
+      endY = startY + heights[start];
+      endLine = lineCount;
+    } else {
+      return startY;
+    }
+    if (line == startLine || endLine == startLine) {
+      return startY;
+    }
+    return startY + (double) (line - startLine) / (endLine - startLine) * (endY - startY);
+  }
+
+  private int upperBound(int line) {
+    int low = 0;
+    int high = lines.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (lines[mid] <= line) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+}
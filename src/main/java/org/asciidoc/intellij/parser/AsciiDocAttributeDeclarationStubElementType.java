@@ -12,6 +12,8 @@ import org.asciidoc.intellij.psi.AsciiDocAttributeDeclarationImpl;
 import org.asciidoc.intellij.psi.AsciiDocAttributeDeclarationKeyIndex;
 import org.asciidoc.intellij.psi.AsciiDocAttributeDeclarationStub;
 import org.asciidoc.intellij.psi.AsciiDocAttributeDeclarationStubImpl;
+import org.asciidoc.intellij.psi.AsciiDocFileReference;
+import org.asciidoc.intellij.psi.AsciiDocPageAliasKeyIndex;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -58,9 +60,19 @@ public class AsciiDocAttributeDeclarationStubElementType extends IStubElementTyp
   }
 
   @Override
+  @SuppressWarnings("StringSplitter")
   public void indexStub(@NotNull AsciiDocAttributeDeclarationStub stub, @NotNull IndexSink sink) {
     if (stub.getAttributeName() != null) {
       sink.occurrence(AsciiDocAttributeDeclarationKeyIndex.KEY, stub.getAttributeName().toLowerCase(Locale.US));
+      if (stub.getAttributeName().equalsIgnoreCase(AsciiDocPageAliasKeyIndex.PAGE_ALIASES) && stub.getAttributeValue() != null) {
+        // add an entry for each alias, so that an xref can be resolved without looking at all aliases
+        for (String alias : stub.getAttributeValue().split(",")) {
+          String key = AsciiDocFileReference.normalizeKeyForSearch(alias.trim());
+          if (!key.isEmpty()) {
+            sink.occurrence(AsciiDocPageAliasKeyIndex.KEY, key);
+          }
+        }
+      }
     }
   }
 }
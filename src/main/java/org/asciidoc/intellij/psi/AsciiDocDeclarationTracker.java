@@ -0,0 +1,232 @@
+package org.asciidoc.intellij.psi;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PathUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches of attribute declarations and block IDs of a project, and a modification tracker that changes only when
+ * one of them changes. Editing text in AsciiDoc files or editing other files keeps the caches.
+ * <p>
+ * Changes in the PSI of an AsciiDoc file invalidate only the entries for the names of the attributes and block IDs
+ * that changed. Changes that can't be attributed to single declarations, like files changed outside the IDE,
+ * changes to the project roots or updated indexes, invalidate all entries.
+ */
+@Service(Service.Level.PROJECT)
+public final class AsciiDocDeclarationTracker implements ModificationTracker, Disposable {
+
+  private final ProjectAttributeCache attributeCache = new ProjectAttributeCache();
+  private final ProjectBlockidCache blockidCache = new ProjectBlockidCache();
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  public AsciiDocDeclarationTracker(Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new DeclarationChangeListener(), this);
+    MessageBusConnection connection = project.getMessageBus().connect(this);
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          // saving a document doesn't change its PSI, and changes to the PSI have been tracked already
+          if (event instanceof VFileContentChangeEvent && event.isFromSave()) {
+            continue;
+          }
+          if (event.getFile() != null && event.getFile().isDirectory() && !(event instanceof VFilePropertyChangeEvent)) {
+            invalidateAll();
+            return;
+          }
+          if (isRelevantFileName(PathUtil.getFileName(event.getPath()))) {
+            invalidateAll();
+            return;
+          }
+        }
+      }
+    });
+    connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+      @Override
+      public void rootsChanged(@NotNull ModuleRootEvent event) {
+        invalidateAll();
+      }
+    });
+    connection.subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+      @Override
+      public void exitDumbMode() {
+        invalidateAll();
+      }
+    });
+  }
+
+  public static AsciiDocDeclarationTracker getInstance(@NotNull Project project) {
+    return project.getService(AsciiDocDeclarationTracker.class);
+  }
+
+  public ProjectAttributeCache getAttributeCache() {
+    return attributeCache;
+  }
+
+  public ProjectBlockidCache getBlockidCache() {
+    return blockidCache;
+  }
+
+  @Override
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+
+  private void invalidateAll() {
+    attributeCache.clear();
+    blockidCache.clear();
+    modificationCount.incrementAndGet();
+  }
+
+  private void invalidateAttribute(@NotNull String name) {
+    attributeCache.invalidate(name);
+    // block IDs containing attributes are resolved using the attribute values
+    blockidCache.invalidateAttribute(name);
+    modificationCount.incrementAndGet();
+  }
+
+  private void invalidateBlockid(@NotNull String name) {
+    if (AsciiDocUtil.ATTRIBUTES.matcher(name).find()) {
+      // a block ID with an attribute might match any key
+      blockidCache.clear();
+    } else {
+      blockidCache.invalidate(name);
+    }
+    modificationCount.incrementAndGet();
+  }
+
+  /**
+   * AsciiDoc files, including <code>.asciidoctorconfig</code>, and Antora playbooks, as they contribute attributes to Antora pages.
+   */
+  private static boolean isRelevantFileName(@NotNull String name) {
+    return name.endsWith(".adoc") || name.endsWith(".asciidoc") || name.endsWith(".ad") || name.startsWith(".asciidoctorconfig")
+      || (name.endsWith(".yml") && name.contains("antora"));
+  }
+
+  @Override
+  public void dispose() {
+    attributeCache.clear();
+    blockidCache.clear();
+  }
+
+  /**
+   * Find the declarations that an element is part of or contains, and invalidate the cache entries for their names.
+   * This is called both before and after a change, so that both the old and the new names are invalidated.
+   */
+  private final class DeclarationChangeListener extends PsiTreeChangeAdapter {
+
+    @Override
+    public void beforeChildrenChange(@NotNull PsiTreeChangeEvent event) {
+      // a generic change is reported for the file on each reparse, the specific events for the changed children follow
+      if (event.getFile() != null && !event.isGenericChange()) {
+        process(event.getFile(), event.getParent());
+      }
+    }
+
+    @Override
+    public void beforeChildRemoval(@NotNull PsiTreeChangeEvent event) {
+      process(event.getFile(), event.getChild());
+    }
+
+    @Override
+    public void beforeChildReplacement(@NotNull PsiTreeChangeEvent event) {
+      process(event.getFile(), event.getOldChild());
+    }
+
+    @Override
+    public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+      if (event.getFile() != null && !event.isGenericChange()) {
+        process(event.getFile(), event.getParent());
+      }
+    }
+
+    @Override
+    public void childAdded(@NotNull PsiTreeChangeEvent event) {
+      process(event.getFile(), event.getChild());
+    }
+
+    @Override
+    public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+      process(event.getFile(), event.getNewChild());
+    }
+
+    @Override
+    public void childMoved(@NotNull PsiTreeChangeEvent event) {
+      process(event.getFile(), event.getChild());
+    }
+
+    @Override
+    public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+      // for example a file has been renamed or reloaded
+      if (event.getFile() == null || event.getFile() instanceof AsciiDocFile) {
+        invalidateAll();
+      }
+    }
+
+    private void process(@Nullable PsiFile file, @Nullable PsiElement element) {
+      if (file == null) {
+        // a file or folder has been added, removed or moved
+        if (element == null || element instanceof AsciiDocFile || element instanceof PsiDirectory) {
+          invalidateAll();
+        }
+        return;
+      }
+      if (!file.isPhysical()) {
+        return;
+      }
+      if (!(file instanceof AsciiDocFile)) {
+        if (isRelevantFileName(file.getName())) {
+          invalidateAll();
+        }
+        return;
+      }
+      if (element == null || !element.isValid()) {
+        invalidateAll();
+        return;
+      }
+      AsciiDocAttributeDeclaration declaration = PsiTreeUtil.getParentOfType(element, AsciiDocAttributeDeclaration.class, false);
+      if (declaration != null && declaration.getAttributeName() != null) {
+        invalidateAttribute(declaration.getAttributeName());
+      }
+      AsciiDocBlockId blockId = PsiTreeUtil.getParentOfType(element, AsciiDocBlockId.class, false);
+      if (blockId != null && blockId.getName() != null) {
+        invalidateBlockid(blockId.getName());
+      }
+      if (declaration != null || blockId != null) {
+        return;
+      }
+      PsiTreeUtil.processElements(element, child -> {
+        if (child instanceof AsciiDocAttributeDeclaration childDeclaration && childDeclaration.getAttributeName() != null) {
+          invalidateAttribute(childDeclaration.getAttributeName());
+        } else if (child instanceof AsciiDocBlockId childBlockId && childBlockId.getName() != null) {
+          invalidateBlockid(childBlockId.getName());
+        }
+        return true;
+      });
+    }
+  }
+
+}
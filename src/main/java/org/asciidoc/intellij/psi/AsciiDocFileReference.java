@@ -676,25 +676,18 @@ public class AsciiDocFileReference extends PsiReferenceBase<PsiElement> implemen
     if (ANTORA_SUPPORTED.contains(macroName) && !isFolder() && depth == 0 && results.isEmpty() && !macroName.equals("include")) {
       VirtualFile antoraModuleDir = AsciiDocUtil.findAntoraModuleDir(root);
       if (antoraModuleDir != null) {
-        List<AttributeDeclaration> declarations = AsciiDocUtil.findAttributes(root.getProject(), "page-aliases", root);
+        String shortKey = normalizeKeyForSearch(key);
+        List<AsciiDocAttributeDeclarationImpl> declarations = AsciiDocUtil.findPageAliasDeclarations(root.getProject(), shortKey);
+        if (declarations.isEmpty()) {
+          return;
+        }
         Collection<AttributeDeclaration> myAttributes = AsciiDocUtil.collectAntoraAttributes(root);
         myAttributes = parseAntoraPrefix(key, myAttributes);
         String pageComponentName = AsciiDocUtil.findAttribute("page-component-name", myAttributes);
         String pageComponentVersion = AsciiDocUtil.findAttribute("page-component-version", myAttributes);
         String pageModule = AsciiDocUtil.findAttribute("page-module", myAttributes);
-        String shortKey = normalizeKeyForSearch(key);
-        for (AttributeDeclaration decl : declarations) {
-          String value = decl.getAttributeValue();
-          if (value == null) {
-            continue;
-          }
-          if (!value.contains(shortKey)) {
-            continue;
-          }
-          if (!(decl instanceof AsciiDocAttributeDeclarationImpl)) {
-            continue;
-          }
-          AsciiDocAttributeDeclarationImpl declImpl = (AsciiDocAttributeDeclarationImpl) decl;
+        for (AsciiDocAttributeDeclarationImpl declImpl : declarations) {
+          String value = declImpl.getAttributeValue();
           Collection<AttributeDeclaration> otherAttributes = AsciiDocUtil.collectAntoraAttributes(declImpl);
           for (String element : value.split(",")) {
             Collection<AttributeDeclaration> elementAttributes = new ArrayList<>(otherAttributes);
@@ -0,0 +1,42 @@
+package org.asciidoc.intellij.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Declarations of the <code>page-aliases</code> attribute, with one key for each alias.
+ * The key is the alias without its component, version, module and family, as normalized by
+ * {@link AsciiDocFileReference#normalizeKeyForSearch(String)}, as these depend on the <code>antora.yml</code> of the declaring page.
+ */
+public class AsciiDocPageAliasKeyIndex extends AsciiDocStringStubIndexExtension<AsciiDocAttributeDeclaration> {
+  public static final StubIndexKey<String, AsciiDocAttributeDeclaration> KEY = StubIndexKey.createIndexKey("asciidocPageAlias.index");
+
+  public static final String PAGE_ALIASES = "page-aliases";
+
+  private static final AsciiDocPageAliasKeyIndex OUR_INSTANCE = new AsciiDocPageAliasKeyIndex();
+
+  public static AsciiDocPageAliasKeyIndex getInstance() {
+    return OUR_INSTANCE;
+  }
+
+  @Override
+  @NotNull
+  public StubIndexKey<String, AsciiDocAttributeDeclaration> getKey() {
+    return KEY;
+  }
+
+  @Override
+  public Class<AsciiDocAttributeDeclaration> requiredClass() {
+    return AsciiDocAttributeDeclaration.class;
+  }
+
+  @Override
+  public Collection<AsciiDocAttributeDeclaration> get(@NotNull String key, @NotNull Project project, @NotNull GlobalSearchScope scope) {
+    return StubIndex.getElements(getKey(), key, project, scope, requiredClass());
+  }
+}
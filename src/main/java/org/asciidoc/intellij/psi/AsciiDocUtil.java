@@ -37,7 +37,6 @@ import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.FileInfoManager;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
@@ -49,6 +48,7 @@ import org.asciidoc.intellij.AsciiDocLanguage;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
 import org.asciidoc.intellij.folding.AsciiDocFoldingBuilder;
+import org.asciidoc.intellij.psi.search.AsciiDocAntoraComponentIndex;
 import org.asciidoc.intellij.psi.search.AsciiDocAntoraPlaybookIndex;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
@@ -69,6 +69,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -105,16 +106,12 @@ public class AsciiDocUtil {
   public static final Key<CachedValue<PsiAttributeCache>> KEY_ASCIIDOC_ATTRIBUTES = new Key<>("asciidoc-attributes");
   public static final Key<CachedValue<ResolvedPrefixCache>> KEY_ASCIIDOC_RESOLVED_PREFIXES = new Key<>("asciidoc-resolved-prefixes");
   public static final Key<CachedValue<Collection<AttributeDeclaration>>> KEY_ASCIIDOC_ANTORA_ATTRIBUTES = new Key<>("asciidoc-antora-attributes");
-  public static final Key<CachedValue<ProjectAttributeCache>> KEY_ASCIIDOC_PROJECT_ATTRIBUTES = new Key<>("asciidoc-project-attributes");
   public static final Key<CachedValue<Collection<AsciiDocSection>>> KEY_ASCIIDOC_SECTIONS_IN_FILE = new Key<>("asciidoc-blockids-in-file");
   public static final Key<CachedValue<Collection<AsciiDocBlockId>>> KEY_ASCIIDOC_BLOCKIDS_IN_FILE = new Key<>("asciidoc-sections-in-file");
   public static final Key<CachedValue<Collection<AsciiDocBlockMacro>>> KEY_ASCIIDOC_BLOCKMACROS_IN_FILE = new Key<>("asciidoc-blockmacros-in-file");
-  public static final Key<CachedValue<ProjectBlockidCache>> KEY_ASCIIDOC_BLOCKIDS_IN_PROJECT = new Key<>("asciidoc-blockids-in-project");
 
   public static ProjectBlockidCache getProjectBlockidCache(Project project) {
-    CachedValue<ProjectBlockidCache> cache = CachedValuesManager.getManager(project).createCachedValue(
-      () -> CachedValueProvider.Result.create(new ProjectBlockidCache(), PsiModificationTracker.MODIFICATION_COUNT));
-    return ((UserDataHolderEx) project).putUserDataIfAbsent(KEY_ASCIIDOC_BLOCKIDS_IN_PROJECT, cache).getValue();
+    return AsciiDocDeclarationTracker.getInstance(project).getBlockidCache();
   }
 
   static List<AsciiDocBlockId> findIds(Project project, String key) {
@@ -134,8 +131,16 @@ public class AsciiDocUtil {
     }
     if (result == null) {
       // if no block IDs have been found, search for block IDs that have attribute that need to resolve
-      asciiDocBlockIds = AsciiDocBlockIdKeyIndex.getInstance().get(BLOCK_ID_WITH_VAR, project, scope);
-      for (AsciiDocBlockId asciiDocBlockId : asciiDocBlockIds) {
+      ProjectBlockidCache.Expansions expansions = cache.getExpansions();
+      if (expansions == null || !expansions.isValid(key)) {
+        // a file with block IDs has been parsed again, or attributes have changed
+        expansions = expandBlockIds(project, AsciiDocBlockIdKeyIndex.getInstance().get(BLOCK_ID_WITH_VAR, project, scope));
+        cache.putExpansions(expansions);
+      }
+      for (AsciiDocBlockId asciiDocBlockId : expansions.get(key)) {
+        result = collectBlockId(result, asciiDocBlockId);
+      }
+      for (AsciiDocBlockId asciiDocBlockId : expansions.getUnexpanded()) {
         String name = asciiDocBlockId.getName();
         if (!matchKeyWithName(name, key, project, new ArrayDeque<>())) {
           continue;
@@ -160,6 +165,93 @@ public class AsciiDocUtil {
     return result;
   }
 
+  /**
+   * Expand the attributes of the block IDs with all declared values, so that looking up a key is a single lookup in a map
+   * instead of matching the key with each block ID.
+   * The table is kept until a block ID with an attribute, or the declaration of an attribute used by it, changes.
+   */
+  private static ProjectBlockidCache.Expansions expandBlockIds(Project project, Collection<AsciiDocBlockId> asciiDocBlockIds) {
+    Map<String, List<AsciiDocBlockId>> ids = new HashMap<>();
+    List<AsciiDocBlockId> unexpanded = new ArrayList<>();
+    Map<String, Set<String>> values = new HashMap<>();
+    for (AsciiDocBlockId asciiDocBlockId : asciiDocBlockIds) {
+      ProgressManager.checkCanceled();
+      String name = asciiDocBlockId.getName();
+      if (name == null) {
+        continue;
+      }
+      Set<String> names = new HashSet<>();
+      if (!expandName(name, 0, new HashMap<>(), project, values, names, 0)) {
+        unexpanded.add(asciiDocBlockId);
+        continue;
+      }
+      for (String expanded : names) {
+        ids.computeIfAbsent(expanded, k -> new ArrayList<>()).add(asciiDocBlockId);
+      }
+    }
+    Set<String> attributes = new HashSet<>();
+    for (String attribute : values.keySet()) {
+      attributes.add(attribute.toLowerCase(Locale.ROOT));
+    }
+    return new ProjectBlockidCache.Expansions(ids, unexpanded, attributes);
+  }
+
+  private static final int MAX_EXPANSIONS = 1000;
+
+  /**
+   * Replace the attributes in the name starting from an offset with all declared values, and collect the results.
+   * If an attribute appears multiple times, all occurrences get the same value. Attributes without a declaration
+   * remain in the result as they are.
+   *
+   * @param bindings values chosen for attributes earlier in the name
+   * @param values   cache of the values declared for each attribute
+   * @return <code>false</code> if there are too many results
+   */
+  private static boolean expandName(String name, int start, Map<String, String> bindings, Project project,
+                                    Map<String, Set<String>> values, Set<String> result, int depth) {
+    if (result.size() > MAX_EXPANSIONS) {
+      return false;
+    }
+    Matcher matcherName = ATTRIBUTES.matcher(name);
+    if (depth > MAX_DEPTH || !matcherName.find(start)) {
+      result.add(name);
+      return true;
+    }
+    String attributeName = matcherName.group(1);
+    String bound = bindings.get(attributeName);
+    Set<String> candidates = bound != null ? Collections.singleton(bound)
+      : values.computeIfAbsent(attributeName, n -> findDeclaredValues(project, n));
+    if (candidates.isEmpty()) {
+      // keep the attribute as it is, and continue with the next attribute
+      return expandName(name, matcherName.end(), bindings, project, values, result, depth);
+    }
+    for (String value : candidates) {
+      String newName = new StringBuilder(name).replace(matcherName.start(), matcherName.end(), value).toString();
+      Map<String, String> newBindings = bindings;
+      if (bound == null) {
+        newBindings = new HashMap<>(bindings);
+        newBindings.put(attributeName, value);
+      }
+      // the value might contain attributes itself, therefore continue at the start of the value
+      if (!expandName(newName, matcherName.start(), newBindings, project, values, result, depth + 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Set<String> findDeclaredValues(Project project, String attributeName) {
+    Set<String> result = new LinkedHashSet<>();
+    for (AttributeDeclaration decl : AsciiDocUtil.findAttributes(project, attributeName)) {
+      String value = decl.getAttributeValue();
+      // avoid replacements where new value contains the old attribute as placeholder
+      if (value != null && !value.contains("{" + decl.getAttributeName() + "}")) {
+        result.add(value);
+      }
+    }
+    return result;
+  }
+
   private static boolean matchKeyWithName(String name, String key, Project project, ArrayDeque<Trinity<String, String, String>> stack) {
     if (stack.size() > MAX_DEPTH) {
       return false;
@@ -316,9 +408,7 @@ public class AsciiDocUtil {
   }
 
   public static ProjectAttributeCache getProjectAttributesCache(Project project) {
-    CachedValue<ProjectAttributeCache> cache = CachedValuesManager.getManager(project).createCachedValue(
-      () -> CachedValueProvider.Result.create(new ProjectAttributeCache(), PsiModificationTracker.MODIFICATION_COUNT));
-    return ((UserDataHolderEx) project).putUserDataIfAbsent(KEY_ASCIIDOC_PROJECT_ATTRIBUTES, cache).getValue();
+    return AsciiDocDeclarationTracker.getInstance(project).getAttributeCache();
   }
 
   public static List<AttributeDeclaration> findAttributes(Project project, String key, boolean onlyAntora) {
@@ -1023,30 +1113,30 @@ public class AsciiDocUtil {
       return Collections.emptyList();
     }
 
-    Collection<VirtualFile> files =
-      FilenameIndex.getVirtualFilesByName(ANTORA_YML, new AsciiDocSearchScope(project));
+    Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> components = findAntoraComponents(project, moduleDir, myComponentName, myComponentName);
+    if (components == null) {
+      return Collections.emptyList();
+    }
     ProjectFileIndex index = ProjectRootManager.getInstance(project).getFileIndex();
     Collection<VirtualFile> result = new HashSet<>();
-    for (VirtualFile file : files) {
+    for (Map.Entry<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> entry : components.entrySet()) {
+      VirtualFile file = entry.getKey();
       if (index.isInLibrary(file)
         || index.isExcluded(file)
         || index.isInLibraryClasses(file)
         || index.isInLibrarySource(file)) {
         continue;
       }
+      if (!Objects.equals(myComponentName, entry.getValue().name()) || !Objects.equals(myComponentVersion, entry.getValue().version())) {
+        continue;
+      }
+      // the navigation files are not part of the index, read them only for the matching component versions
       Map<String, Object> antora;
       try {
-        antora = AsciiDocWrapper.readAntoraYaml(project, antoraFile);
+        antora = AsciiDocWrapper.readAntoraYaml(project, file);
       } catch (YAMLException ex) {
         continue;
       }
-
-      if (!Objects.equals(myComponentName, getAttributeAsString(antora, "name"))) {
-        continue;
-      }
-      if (!Objects.equals(myComponentVersion, getAttributeAsString(antora, "version"))) {
-        continue;
-      }
       Object nav = antora.get("nav");
       if (nav instanceof Collection) {
         for (Object item : (Collection<?>) nav) {
@@ -1771,21 +1861,38 @@ public class AsciiDocUtil {
     return result;
   }
 
-  @SuppressWarnings("StringSplitter")
-  private static void resolvePageAliases(Project project, String key, String myModuleName, String myComponentName, String myComponentVersion, List<String> result) {
-    List<AttributeDeclaration> declarations = AsciiDocUtil.findAttributes(project, "page-aliases", true);
-    String shortKey = AsciiDocFileReference.normalizeKeyForSearch(key);
-    for (AttributeDeclaration decl : declarations) {
-      String value = decl.getAttributeValue();
-      if (value == null) {
-        continue;
-      }
-      if (!value.contains(shortKey)) {
+  /**
+   * Find the declarations of <code>page-aliases</code> in Antora modules that contain an alias for the key.
+   * The caller still needs to check the component, version and module of each alias.
+   *
+   * @param shortKey key as normalized by {@link AsciiDocFileReference#normalizeKeyForSearch(String)}
+   */
+  public static List<AsciiDocAttributeDeclarationImpl> findPageAliasDeclarations(Project project, String shortKey) {
+    if (DumbService.isDumb(project)) {
+      return Collections.emptyList();
+    }
+    ProgressManager.checkCanceled();
+    final GlobalSearchScope scope = new AsciiDocSearchScope(project).restrictedByAsciiDocFileType();
+    List<AsciiDocAttributeDeclarationImpl> result = new ArrayList<>();
+    Map<VirtualFile, Boolean> cache = new HashMap<>();
+    for (AsciiDocAttributeDeclaration declaration : AsciiDocPageAliasKeyIndex.getInstance().get(shortKey, project, scope)) {
+      if (!(declaration instanceof AsciiDocAttributeDeclarationImpl declImpl) || declImpl.getAttributeValue() == null) {
         continue;
       }
-      if (!(decl instanceof AsciiDocAttributeDeclarationImpl declImpl)) {
-        continue;
+      VirtualFile virtualFile = declImpl.getContainingFile().getVirtualFile();
+      // aliases are only meaningful in Antora pages
+      if (virtualFile != null && cache.computeIfAbsent(virtualFile.getParent(), s -> findAntoraModuleDir(project, s) != null)) {
+        result.add(declImpl);
       }
+    }
+    return result;
+  }
+
+  @SuppressWarnings("StringSplitter")
+  private static void resolvePageAliases(Project project, String key, String myModuleName, String myComponentName, String myComponentVersion, List<String> result) {
+    String shortKey = AsciiDocFileReference.normalizeKeyForSearch(key);
+    for (AsciiDocAttributeDeclarationImpl declImpl : findPageAliasDeclarations(project, shortKey)) {
+      String value = declImpl.getAttributeValue();
       Collection<AttributeDeclaration> otherAttributes = AsciiDocUtil.collectAntoraAttributes(declImpl);
       for (String element : value.split(",")) {
         Collection<AttributeDeclaration> elementAttributes = new ArrayList<>(otherAttributes);
@@ -1820,7 +1927,7 @@ public class AsciiDocUtil {
     String otherModuleName = _otherModuleName;
 
     if (project.isDisposed()) {
-      // FilenameIndex.getFilesByName will otherwise log an error later
+      // the index will otherwise log an error later
       throw new ProcessCanceledException();
     }
     boolean useLatest = false;
@@ -1843,20 +1950,9 @@ public class AsciiDocUtil {
       if (otherModuleName == null || otherModuleName.length() == 0) {
         otherModuleName = "ROOT";
       }
-      List<VirtualFile> files = null;
-      try {
-        files = new ArrayList<>(FilenameIndex.getVirtualFilesByName(ANTORA_YML, new AsciiDocSearchScope(project)));
-      } catch (IndexNotReadyException ex) {
-        // if the index is not ready, try at least looking in the current module
-        if (otherComponentName.equals(myComponentName)) {
-          VirtualFile componentDescriptor = moduleDir.getParent().getParent().findChild("antora.yml");
-          if (componentDescriptor != null) {
-            files = new ArrayList<>();
-            files.add(componentDescriptor);
-          }
-        }
-      }
-      if (files != null) {
+      Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> components = findAntoraComponents(project, moduleDir, otherComponentName, myComponentName);
+      if (components != null) {
+        List<VirtualFile> files = new ArrayList<>(components.keySet());
         // sort by path proximity
         files.sort(Comparator.comparingInt(value -> countNumberOfSameStartingCharacters(value, moduleDir.getPath()) * -1));
         ProjectFileIndex index = ProjectRootManager.getInstance(project).getFileIndex();
@@ -1879,21 +1975,16 @@ public class AsciiDocUtil {
           if (antoraModule == null) {
             continue;
           }
-          Map<String, Object> antora;
-          try {
-            antora = AsciiDocWrapper.readAntoraYaml(project, file);
-          } catch (YAMLException ex) {
-            continue;
-          }
-          if (!Objects.equals(otherComponentName, getAttributeAsString(antora, "name"))) {
+          AsciiDocAntoraComponentIndex.Descriptor antora = components.get(file);
+          if (!Objects.equals(otherComponentName, antora.name())) {
             continue;
           }
           if (!useLatest) {
-            if (!Objects.equals(otherComponentVersion, getAttributeAsString(antora, "version"))) {
+            if (!Objects.equals(otherComponentVersion, antora.version())) {
               continue;
             }
           } else {
-            AntoraVersionDescriptor otherVersion = new AntoraVersionDescriptor(getAttributeAsString(antora, "version"), getAttributeAsString(antora, "prerelease"));
+            AntoraVersionDescriptor otherVersion = antora.versionDescriptor();
             if (latestVersion == null) {
               latestVersion = otherVersion;
             } else {
@@ -1921,7 +2012,7 @@ public class AsciiDocUtil {
     String otherComponentName = _otherComponentName;
 
     if (project.isDisposed()) {
-      // FilenameIndex.getFilesByName will otherwise log an error later
+      // the index will otherwise log an error later
       throw new ProcessCanceledException();
     }
     boolean useLatest = false;
@@ -1937,20 +2028,9 @@ public class AsciiDocUtil {
     }
 
     if (otherComponentName != null) {
-      List<VirtualFile> files = null;
-      try {
-        files = new ArrayList<>(FilenameIndex.getVirtualFilesByName(ANTORA_YML, new AsciiDocSearchScope(project)));
-      } catch (IndexNotReadyException ex) {
-        // if the index is not ready, try at least looking in the current module
-        if (otherComponentName.equals(myComponentName)) {
-          VirtualFile componentDescriptor = moduleDir.getParent().getParent().findChild("antora.yml");
-          if (componentDescriptor != null) {
-            files = new ArrayList<>();
-            files.add(componentDescriptor);
-          }
-        }
-      }
-      if (files != null) {
+      Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> components = findAntoraComponents(project, moduleDir, otherComponentName, myComponentName);
+      if (components != null) {
+        List<VirtualFile> files = new ArrayList<>(components.keySet());
         // sort by path proximity
         files.sort(Comparator.comparingInt(value -> countNumberOfSameStartingCharacters(value, moduleDir.getPath()) * -1));
         ProjectFileIndex index = ProjectRootManager.getInstance(project).getFileIndex();
@@ -1969,21 +2049,16 @@ public class AsciiDocUtil {
           if (antoraModulesDir == null) {
             continue;
           }
-          Map<String, Object> antora;
-          try {
-            antora = AsciiDocWrapper.readAntoraYaml(project, file);
-          } catch (YAMLException ex) {
-            continue;
-          }
-          if (!Objects.equals(otherComponentName, getAttributeAsString(antora, "name"))) {
+          AsciiDocAntoraComponentIndex.Descriptor antora = components.get(file);
+          if (!Objects.equals(otherComponentName, antora.name())) {
             continue;
           }
           if (!useLatest) {
-            if (!Objects.equals(otherComponentVersion, getAttributeAsString(antora, "version"))) {
+            if (!Objects.equals(otherComponentVersion, antora.version())) {
               continue;
             }
           } else {
-            AntoraVersionDescriptor otherVersion = new AntoraVersionDescriptor(getAttributeAsString(antora, "version"), getAttributeAsString(antora, "prerelease"));
+            AntoraVersionDescriptor otherVersion = antora.versionDescriptor();
             if (latestVersion == null) {
               latestVersion = otherVersion;
             } else {
@@ -2003,6 +2078,31 @@ public class AsciiDocUtil {
     return result;
   }
 
+  /**
+   * Find the component descriptors with the given name in the index.
+   * If the index is not ready, try at least looking in the current component.
+   *
+   * @return <code>null</code> if no descriptors could be found
+   */
+  @Nullable
+  private static Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> findAntoraComponents(Project project, VirtualFile moduleDir,
+                                                                                               String componentName, String myComponentName) {
+    try {
+      return AsciiDocAntoraComponentIndex.getComponents(project, componentName);
+    } catch (IndexNotReadyException ex) {
+      if (Objects.equals(componentName, myComponentName)) {
+        VirtualFile componentDescriptor = moduleDir.getParent().getParent().findChild(ANTORA_YML);
+        if (componentDescriptor != null) {
+          AsciiDocAntoraComponentIndex.Descriptor descriptor = AsciiDocAntoraComponentIndex.read(project, componentDescriptor);
+          if (descriptor != null) {
+            return Collections.singletonMap(componentDescriptor, descriptor);
+          }
+        }
+      }
+      return null;
+    }
+  }
+
   @Nullable
   public static String getAttributeAsString(Map<String, Object> antora, String name) {
     Object value = antora.get(name);
@@ -2034,8 +2134,8 @@ public class AsciiDocUtil {
       return Collections.emptyList();
     }
     return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
-      List<VirtualFile> files =
-        new ArrayList<>(FilenameIndex.getVirtualFilesByName(ANTORA_YML, new AsciiDocSearchScope(project)));
+      Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> components = AsciiDocAntoraComponentIndex.getComponents(project, null);
+      List<VirtualFile> files = new ArrayList<>(components.keySet());
       List<AntoraModule> result = new ArrayList<>();
       Map<String, AntoraVersionAndList> latestVersions = new HashMap<>();
       // sort by path proximity
@@ -2050,14 +2150,15 @@ public class AsciiDocUtil {
       if (antoraFile == null) {
         return result;
       }
-      Map<String, Object> antora;
-      try {
-        antora = AsciiDocWrapper.readAntoraYaml(project, antoraFile);
-      } catch (YAMLException ex) {
+      AsciiDocAntoraComponentIndex.Descriptor antora = components.get(antoraFile);
+      if (antora == null) {
+        antora = AsciiDocAntoraComponentIndex.read(project, antoraFile);
+      }
+      if (antora == null) {
         return result;
       }
-      String myComponentName = getAttributeAsString(antora, "name");
-      String myComponentVersion = getAttributeAsString(antora, "version");
+      String myComponentName = antora.name();
+      String myComponentVersion = antora.version();
       Map<String, String> componentTitles = new HashMap<>();
       for (VirtualFile file : files) {
         if (index.isInLibrary(file)
@@ -2066,14 +2167,10 @@ public class AsciiDocUtil {
           || index.isInLibrarySource(file)) {
           continue;
         }
-        try {
-          antora = AsciiDocWrapper.readAntoraYaml(project, file);
-        } catch (YAMLException ex) {
-          continue;
-        }
-        String otherComponentName = getAttributeAsString(antora, "name");
-        String otherComponentVersion = getAttributeAsString(antora, "version");
-        AntoraVersionDescriptor otherComponentVersionDescriptor = new AntoraVersionDescriptor(otherComponentVersion, getAttributeAsString(antora, "prerelease"));
+        antora = components.get(file);
+        String otherComponentName = antora.name();
+        String otherComponentVersion = antora.version();
+        AntoraVersionDescriptor otherComponentVersionDescriptor = antora.versionDescriptor();
         AntoraVersionAndList latestVersion = latestVersions.get(otherComponentName);
         if (latestVersion == null || latestVersion.getVersion().compareTo(otherComponentVersionDescriptor) < 0) {
           latestVersion = new AntoraVersionAndList(otherComponentVersionDescriptor);
@@ -2082,12 +2179,12 @@ public class AsciiDocUtil {
           // this is not the latest version, don't record modules as the latest version
           latestVersion = null;
         }
-        String title = getAttributeAsString(antora, "title");
+        String title = antora.title();
         if (title != null && componentTitles.get(otherComponentName) == null) {
           componentTitles.put(otherComponentName, title);
         }
         String versionPrefix = "";
-        if (antora.get("version") instanceof Boolean && (Boolean) antora.get("version")) {
+        if (antora.unversioned()) {
           versionPrefix = "";
         } else if (!Objects.equals(myComponentVersion, otherComponentVersion) || !Objects.equals(myComponentName, otherComponentName)) {
           versionPrefix = otherComponentVersion + "@";
@@ -2144,31 +2241,26 @@ public class AsciiDocUtil {
       return Collections.emptyList();
     }
     return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
-      List<VirtualFile> files =
-        new ArrayList<>(FilenameIndex.getVirtualFilesByName(ANTORA_YML, new AsciiDocSearchScope(project)));
+      Map<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> components = AsciiDocAntoraComponentIndex.getComponents(project, componentName);
       List<AntoraModule> result = new ArrayList<>();
       ProjectFileIndex index = ProjectRootManager.getInstance(project).getFileIndex();
       Map<String, String> componentTitles = new HashMap<>();
-      for (VirtualFile file : files) {
+      for (Map.Entry<VirtualFile, AsciiDocAntoraComponentIndex.Descriptor> entry : components.entrySet()) {
+        VirtualFile file = entry.getKey();
         if (index.isInLibrary(file)
           || index.isExcluded(file)
           || index.isInLibraryClasses(file)
           || index.isInLibrarySource(file)) {
           continue;
         }
-        Map<String, Object> antora;
-        try {
-          antora = AsciiDocWrapper.readAntoraYaml(project, file);
-        } catch (YAMLException ex) {
-          continue;
-        }
-        String otherComponentName = getAttributeAsString(antora, "name");
-        String otherComponentVersion = getAttributeAsString(antora, "version");
+        AsciiDocAntoraComponentIndex.Descriptor antora = entry.getValue();
+        String otherComponentName = antora.name();
+        String otherComponentVersion = antora.version();
         String versionPrefix = otherComponentVersion + "@";
         if (versionPrefix.length() == 1) {
           versionPrefix = "_" + versionPrefix;
         }
-        String title = getAttributeAsString(antora, "title");
+        String title = antora.title();
         if (title != null && componentTitles.get(otherComponentName) == null) {
           componentTitles.put(otherComponentName, title);
         }
@@ -39,11 +39,26 @@ public class ProjectAttributeCache {
   }
 
   public List<AttributeDeclaration> get(String key, boolean onlyAntora) {
-    return cache.get(new Key(key, onlyAntora));
+    List<AttributeDeclaration> result = cache.get(new Key(key, onlyAntora));
+    if (result != null && !ProjectBlockidCache.isValid(result)) {
+      return null;
+    }
+    return result;
   }
 
   public void put(String key, boolean onlyAntora, List<AttributeDeclaration> value) {
     cache.put(new Key(key, onlyAntora), value);
   }
 
+  /**
+   * Remove the entries for an attribute, independent of the case of its name.
+   */
+  public void invalidate(String name) {
+    cache.keySet().removeIf(k -> k.key.equalsIgnoreCase(name));
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
 }
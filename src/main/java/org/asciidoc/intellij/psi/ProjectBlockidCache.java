@@ -1,7 +1,12 @@
 package org.asciidoc.intellij.psi;
 
+import com.intellij.psi.PsiElement;
+
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -9,13 +14,97 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class ProjectBlockidCache {
   private final Map<String, List<AsciiDocBlockId>> cache = new ConcurrentHashMap<>();
+  private volatile Expansions expansions;
+
+  /**
+   * Block IDs with attributes, by all IDs they expand to with the declared values of the attributes.
+   */
+  public static final class Expansions {
+    private final Map<String, List<AsciiDocBlockId>> ids;
+    private final List<AsciiDocBlockId> unexpanded;
+    private final Set<String> attributes;
+
+    /**
+     * @param unexpanded block IDs with too many expansions, they need to be matched with each key
+     * @param attributes names of the attributes whose values have been used for the expansions, in lower case
+     */
+    public Expansions(Map<String, List<AsciiDocBlockId>> ids, List<AsciiDocBlockId> unexpanded, Set<String> attributes) {
+      this.ids = ids;
+      this.unexpanded = unexpanded;
+      this.attributes = attributes;
+    }
+
+    public List<AsciiDocBlockId> get(String key) {
+      return ids.getOrDefault(key, Collections.emptyList());
+    }
+
+    public List<AsciiDocBlockId> getUnexpanded() {
+      return unexpanded;
+    }
+
+    /**
+     * Check only the elements needed for the key, as checking all elements would take longer than expanding the block IDs.
+     */
+    public boolean isValid(String key) {
+      return ProjectBlockidCache.isValid(get(key)) && ProjectBlockidCache.isValid(unexpanded);
+    }
+
+    private boolean dependsOn(String attribute) {
+      // block IDs that are matched with each key might use any attribute
+      return !unexpanded.isEmpty() || attributes.contains(attribute.toLowerCase(Locale.ROOT));
+    }
+  }
 
   public List<AsciiDocBlockId> get(String key) {
-    return cache.get(key);
+    List<AsciiDocBlockId> result = cache.get(key);
+    if (result != null && !isValid(result)) {
+      return null;
+    }
+    return result;
   }
 
   public void put(String key, List<AsciiDocBlockId> value) {
     cache.put(key, value);
   }
 
+  public void invalidate(String key) {
+    cache.remove(key);
+  }
+
+  public void clear() {
+    cache.clear();
+    expansions = null;
+  }
+
+  /**
+   * Remove the entries that might depend on the value of an attribute. Only block IDs with attributes depend on them,
+   * and a key is resolved via those only after the table of their expansions has been created.
+   */
+  public void invalidateAttribute(String name) {
+    Expansions current = expansions;
+    if (current != null && current.dependsOn(name)) {
+      clear();
+    }
+  }
+
+  public Expansions getExpansions() {
+    return expansions;
+  }
+
+  public void putExpansions(Expansions expansions) {
+    this.expansions = expansions;
+  }
+
+  /**
+   * An entry might contain elements of a file that has been parsed again since, even if its declarations didn't change.
+   */
+  static boolean isValid(List<?> elements) {
+    for (Object element : elements) {
+      if (element instanceof PsiElement psiElement && !psiElement.isValid()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
 }
@@ -0,0 +1,114 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.psi.AntoraVersionDescriptor;
+import org.asciidoc.intellij.psi.AsciiDocSearchScope;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Index of the Antora component descriptors (<code>antora.yml</code>), so that resolving and completing Antora prefixes
+ * doesn't need to parse the YAML of every component version each time.
+ * <p>
+ * The modules of a component are not part of the index, as they are folders next to the descriptor and not part of its content.
+ * Descriptors using the collector extension are stored with the key {@link #GENERATED_KEY} and are read again on each lookup,
+ * as the generated descriptor that completes them is not known when indexing the file.
+ */
+public class AsciiDocAntoraComponentIndex {
+  @NonNls
+  public static final ID<String, Descriptor> NAME = ID.create("AsciiDocAntoraComponentIndex");
+
+  public static final String GENERATED_KEY = "<generated>";
+
+  /**
+   * Attributes of a component descriptor needed to resolve Antora prefixes.
+   *
+   * @param version     version as a string, empty if no version is given; starting from Antora 3.0.0.alpha-3 a version can be empty
+   * @param unversioned if the component is unversioned (<code>version: true</code>), so that references to it don't need a version
+   * @param generated   if the descriptor is completed by a descriptor generated by the collector extension
+   */
+  public record Descriptor(@Nullable String name, @NotNull String version, boolean unversioned, @Nullable String prerelease,
+                           @Nullable String displayVersion, @Nullable String title, boolean generated) {
+
+    public static Descriptor of(@NotNull Map<?, ?> antora) {
+      Object version = antora.get("version");
+      Object ext = antora.get("ext");
+      return new Descriptor(asString(antora.get("name")), version == null ? "" : version.toString(),
+        Boolean.TRUE.equals(version), asString(antora.get("prerelease")), asString(antora.get("display_version")),
+        asString(antora.get("title")), ext instanceof Map && ((Map<?, ?>) ext).get("collector") != null);
+    }
+
+    public AntoraVersionDescriptor versionDescriptor() {
+      return new AntoraVersionDescriptor(version, prerelease);
+    }
+
+    @Nullable
+    private static String asString(@Nullable Object value) {
+      return value == null ? null : value.toString();
+    }
+  }
+
+  /**
+   * Find the component descriptors of the project.
+   *
+   * @param name name of the component, or <code>null</code> for all components
+   * @return descriptors by their file, the order is not defined
+   */
+  public static Map<VirtualFile, Descriptor> getComponents(@NotNull Project project, @Nullable String name) {
+    Map<VirtualFile, Descriptor> result = new LinkedHashMap<>();
+    AsciiDocSearchScope scope = new AsciiDocSearchScope(project);
+    List<String> keys = new ArrayList<>();
+    if (name != null) {
+      keys.add(name);
+      keys.add(GENERATED_KEY);
+    } else {
+      keys.addAll(FileBasedIndex.getInstance().getAllKeys(NAME, project));
+    }
+    List<VirtualFile> generated = new ArrayList<>();
+    for (String key : keys) {
+      FileBasedIndex.getInstance().processValues(NAME, key, null, (file, value) -> {
+        if (value.generated()) {
+          generated.add(file);
+        } else {
+          result.put(file, value);
+        }
+        return true;
+      }, scope, null);
+    }
+    // read these only after processing the index, to avoid accessing the index recursively
+    for (VirtualFile file : generated) {
+      Descriptor value = read(project, file);
+      if (value != null && (name == null || Objects.equals(name, value.name()))) {
+        result.put(file, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Read a component descriptor including generated descriptors of the collector extension.
+   *
+   * @return <code>null</code> if the file can't be parsed
+   */
+  @Nullable
+  public static Descriptor read(@NotNull Project project, @NotNull VirtualFile file) {
+    try {
+      return Descriptor.of(AsciiDocWrapper.readAntoraYaml(project, file));
+    } catch (YAMLException ex) {
+      return null;
+    }
+  }
+
+}
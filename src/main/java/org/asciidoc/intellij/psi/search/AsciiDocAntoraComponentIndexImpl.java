@@ -0,0 +1,124 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index implementation to contain all Antora component descriptors, with the name of the component as the key.
+ */
+public class AsciiDocAntoraComponentIndexImpl extends FileBasedIndexExtension<String, AsciiDocAntoraComponentIndex.Descriptor> {
+
+  @NotNull
+  @Override
+  public ID<String, AsciiDocAntoraComponentIndex.Descriptor> getName() {
+    return AsciiDocAntoraComponentIndex.NAME;
+  }
+
+  /**
+   * Descriptors that are completed by generated descriptors of the collector extension are stored with a separate key,
+   * as their name might only be known from the generated descriptor.
+   */
+  @NotNull
+  @Override
+  public DataIndexer<String, AsciiDocAntoraComponentIndex.Descriptor, FileContent> getIndexer() {
+    return inputData -> {
+      Map<?, ?> antora;
+      try {
+        Object r = new Yaml().load(inputData.getContentAsText().toString());
+        if (!(r instanceof Map)) {
+          return Collections.emptyMap();
+        }
+        antora = (Map<?, ?>) r;
+      } catch (YAMLException ex) {
+        return Collections.emptyMap();
+      }
+      AsciiDocAntoraComponentIndex.Descriptor descriptor = AsciiDocAntoraComponentIndex.Descriptor.of(antora);
+      Map<String, AsciiDocAntoraComponentIndex.Descriptor> result = new HashMap<>();
+      if (descriptor.generated()) {
+        result.put(AsciiDocAntoraComponentIndex.GENERATED_KEY, descriptor);
+      } else if (descriptor.name() != null) {
+        result.put(descriptor.name(), descriptor);
+      }
+      return result;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<AsciiDocAntoraComponentIndex.Descriptor> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, AsciiDocAntoraComponentIndex.Descriptor value) throws IOException {
+        writeNullable(out, value.name());
+        IOUtil.writeUTF(out, value.version());
+        out.writeBoolean(value.unversioned());
+        writeNullable(out, value.prerelease());
+        writeNullable(out, value.displayVersion());
+        writeNullable(out, value.title());
+        out.writeBoolean(value.generated());
+      }
+
+      @Override
+      public AsciiDocAntoraComponentIndex.Descriptor read(@NotNull DataInput in) throws IOException {
+        return new AsciiDocAntoraComponentIndex.Descriptor(readNullable(in), IOUtil.readUTF(in), in.readBoolean(),
+          readNullable(in), readNullable(in), readNullable(in), in.readBoolean());
+      }
+    };
+  }
+
+  private static void writeNullable(@NotNull DataOutput out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      IOUtil.writeUTF(out, value);
+    }
+  }
+
+  @Nullable
+  private static String readNullable(@NotNull DataInput in) throws IOException {
+    return in.readBoolean() ? IOUtil.readUTF(in) : null;
+  }
+
+  /**
+   * Files to be indexed are Antora component descriptors only.
+   */
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return vf -> vf.getName().equals(AsciiDocUtil.ANTORA_YML);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+}
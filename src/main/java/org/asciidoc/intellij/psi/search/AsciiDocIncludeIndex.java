@@ -0,0 +1,156 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.CollectionFactory;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.AsciiDocSearchScope;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the include directives of all AsciiDoc files, with the file name of the included file as the key.
+ * This allows to look up which files a file includes, and which files include a file, without parsing them.
+ * <p>
+ * The index stores the targets as they are written, and they are resolved against the folder of the file when querying,
+ * so that the entries stay valid when a file or one of its parent folders is moved.
+ * Only the content of the file itself is known when indexing it, therefore includes with attributes that are declared
+ * elsewhere, and includes via Antora resource IDs, are stored with the key {@link #UNRESOLVED}.
+ */
+public class AsciiDocIncludeIndex {
+  @NonNls
+  public static final ID<String, List<String>> NAME = ID.create("AsciiDocIncludeIndex");
+
+  /**
+   * Key for includes where the target is unknown until the file is rendered.
+   */
+  public static final String UNRESOLVED = "?";
+
+  /**
+   * Prefix of the targets of includes relative to <code>{docdir}</code>. This is the folder of the main document
+   * even when the include is part of an included file, therefore it is resolved only when starting from the main document.
+   */
+  public static final String DOCDIR = "{docdir}";
+
+  private static final Pattern ABSOLUTE = Pattern.compile("^(/|[a-zA-Z]:/).*");
+
+  /**
+   * Paths of the files directly included by the file, including {@link #UNRESOLVED} if there are includes that couldn't be resolved.
+   * Paths of includes relative to the folder of the main document start with {@link #DOCDIR}.
+   */
+  public static Collection<String> getIncludedPaths(@NotNull Project project, @NotNull VirtualFile file) {
+    Set<String> result = new LinkedHashSet<>();
+    VirtualFile dir = file.getParent();
+    for (Map.Entry<String, List<String>> entry : FileBasedIndex.getInstance().getFileData(NAME, file, project).entrySet()) {
+      if (UNRESOLVED.equals(entry.getKey())) {
+        result.add(UNRESOLVED);
+        continue;
+      }
+      for (String target : entry.getValue()) {
+        if (target.startsWith(DOCDIR)) {
+          result.add(target);
+        } else {
+          String path = resolve(target, dir);
+          result.add(path != null ? path : UNRESOLVED);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Files that might directly include the file: files with an include of the file, and files with includes that
+   * couldn't be resolved. Includes relative to {@link #DOCDIR} match if the file is in a subfolder with that relative path,
+   * as any folder that contains the file might be the folder of the main document.
+   */
+  public static Collection<VirtualFile> getIncludingFiles(@NotNull Project project, @NotNull VirtualFile file) {
+    Set<VirtualFile> files = CollectionFactory.createSmallMemoryFootprintSet();
+    AsciiDocSearchScope scope = new AsciiDocSearchScope(project);
+    FileBasedIndex.getInstance().processValues(NAME, file.getName(), null, (f, targets) -> {
+      for (String target : targets) {
+        if (target.startsWith(DOCDIR)) {
+          if (file.getPath().endsWith(FileUtil.toCanonicalPath(target.substring(DOCDIR.length())))) {
+            files.add(f);
+          }
+        } else if (file.getPath().equals(resolve(target, f.getParent()))) {
+          files.add(f);
+        }
+      }
+      return true;
+    }, scope, null);
+    FileBasedIndex.getInstance().processValues(NAME, UNRESOLVED, null, (f, targets) -> {
+      files.add(f);
+      return true;
+    }, scope, null);
+    return files;
+  }
+  /**
+   * Paths of all files included by the file, directly or via other included files.
+   * The paths of files that don't exist yet are part of the result, so that creating such a file can be recognized as well.
+   * Includes relative to {@link #DOCDIR} are resolved against the folder of the file.
+   *
+   * @return <code>null</code> if the file or one of its included files contains an include that couldn't be resolved
+   */
+  @Nullable
+  public static Set<String> getIncludedPathsTransitively(@NotNull Project project, @NotNull VirtualFile file) {
+    Set<String> result = new HashSet<>();
+    VirtualFile docdir = file.getParent();
+    Deque<VirtualFile> queue = new ArrayDeque<>();
+    queue.add(file);
+    while (!queue.isEmpty()) {
+      VirtualFile current = queue.poll();
+      for (String key : getIncludedPaths(project, current)) {
+        String path = key;
+        if (UNRESOLVED.equals(path)) {
+          return null;
+        }
+        if (path.startsWith(DOCDIR)) {
+          if (docdir == null) {
+            return null;
+          }
+          path = FileUtil.toCanonicalPath(docdir.getPath() + path.substring(DOCDIR.length()));
+        }
+        if (!result.add(path)) {
+          continue;
+        }
+        VirtualFile included = LocalFileSystem.getInstance().findFileByPath(path);
+        if (included != null && included.isValid() && included.getFileType().equals(AsciiDocFileType.INSTANCE)) {
+          queue.add(included);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Resolve the target of an include against a folder, unless it is an absolute path already.
+   *
+   * @return <code>null</code> if the target is relative, and there is no folder to resolve it against
+   */
+  @Nullable
+  private static String resolve(@NotNull String target, @Nullable VirtualFile dir) {
+    if (ABSOLUTE.matcher(target).matches()) {
+      return FileUtil.toCanonicalPath(target);
+    }
+    if (dir == null) {
+      return null;
+    }
+    return FileUtil.toCanonicalPath(dir.getPath() + "/" + target);
+  }
+
+}
@@ -0,0 +1,176 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.PathUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index implementation to contain the includes of all AsciiDoc files.
+ */
+public class AsciiDocIncludeIndexImpl extends FileBasedIndexExtension<String, List<String>> {
+
+  private static final Pattern INCLUDE = Pattern.compile("^include::([^\\[\\s][^\\[]*)\\[.*]\\s*$");
+  private static final Pattern ATTRIBUTE_ENTRY = Pattern.compile("^:([a-zA-Z0-9_][a-zA-Z0-9_-]*)(!?):(?:\\s+(.*?))?\\s*$");
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return AsciiDocIncludeIndex.NAME;
+  }
+
+  /**
+   * Map each file to the targets of its includes, with the file names of the targets as keys.
+   */
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return inputData -> findIncludes(inputData.getContentAsText());
+  }
+
+  /**
+   * Find the targets of all include directives outside of comments.
+   * Attributes in a target are resolved if they have been declared before in the same file.
+   * Relative targets stay relative, so that the entries stay valid when the file or one of its parent folders is moved;
+   * a target starting with <code>{docdir}</code> keeps it as a prefix, as it refers to the folder of the main document.
+   * As the index only sees the content of a single file, targets with other attributes, and Antora resource IDs,
+   * are reported as {@link AsciiDocIncludeIndex#UNRESOLVED}. Remote includes are ignored.
+   *
+   * @return targets of the includes by their file names
+   */
+  static Map<String, List<String>> findIncludes(@NotNull CharSequence text) {
+    Map<String, List<String>> result = new LinkedHashMap<>();
+    Map<String, String> attributes = new HashMap<>();
+    boolean inComment = false;
+    for (String line : text.toString().split("\r?\n")) {
+      if (line.startsWith("////") && line.trim().chars().allMatch(c -> c == '/')) {
+        inComment = !inComment;
+        continue;
+      }
+      if (inComment || line.startsWith("//")) {
+        continue;
+      }
+      Matcher entry = ATTRIBUTE_ENTRY.matcher(line);
+      if (entry.matches()) {
+        if (entry.group(2).isEmpty() && entry.group(3) != null) {
+          attributes.put(entry.group(1), entry.group(3));
+        } else {
+          attributes.remove(entry.group(1));
+        }
+        continue;
+      }
+      Matcher include = INCLUDE.matcher(line);
+      if (!include.matches()) {
+        continue;
+      }
+      String target = resolveAttributes(include.group(1).trim(), attributes);
+      if (target != null && target.contains("://")) {
+        continue;
+      }
+      if (target == null || target.contains("$") || target.lastIndexOf(AsciiDocIncludeIndex.DOCDIR) > 0) {
+        result.putIfAbsent(AsciiDocIncludeIndex.UNRESOLVED, new ArrayList<>());
+        continue;
+      }
+      target = FileUtil.toSystemIndependentName(target);
+      List<String> targets = result.computeIfAbsent(PathUtil.getFileName(target), k -> new ArrayList<>());
+      if (!targets.contains(target)) {
+        targets.add(target);
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private static String resolveAttributes(@NotNull String target, @NotNull Map<String, String> attributes) {
+    Matcher matcher = AsciiDocUtil.ATTRIBUTES.matcher(target);
+    StringBuilder sb = new StringBuilder();
+    while (matcher.find()) {
+      String value = attributes.get(matcher.group(1));
+      if (value == null && matcher.group(1).equals("docdir")) {
+        value = AsciiDocIncludeIndex.DOCDIR;
+      }
+      if (value == null) {
+        return null;
+      }
+      matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+    }
+    matcher.appendTail(sb);
+    return sb.toString();
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<String> value) throws IOException {
+        out.writeInt(value.size());
+        for (String target : value) {
+          IOUtil.writeUTF(out, target);
+        }
+      }
+
+      @Override
+      public List<String> read(@NotNull DataInput in) throws IOException {
+        int size = in.readInt();
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+          result.add(IOUtil.readUTF(in));
+        }
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Files to be indexed are AsciiDoc files only.
+   */
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return vf -> vf.getFileType().equals(AsciiDocFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 3;
+  }
+
+  @Override
+  public boolean traceKeyHashToVirtualFileMapping() {
+    return true;
+  }
+}
@@ -0,0 +1,68 @@
+package org.asciidoc.intellij.threading;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cooperative cancellation of a running conversion. Asciidoctor itself can't be interrupted, therefore the include processor,
+ * the tree processors and the converter extensions call {@link #checkCanceled()} to abort a conversion whose result is no longer needed,
+ * for example because the user continued typing.
+ */
+public final class AsciiDocRenderCancellation {
+
+  private static final ThreadLocal<BooleanSupplier> TOKEN = new ThreadLocal<>();
+
+  private AsciiDocRenderCancellation() {
+  }
+
+  /**
+   * Run a conversion that should abort once the token returns <code>true</code>.
+   *
+   * @throws ProcessCanceledException when the token signals a cancellation during the conversion
+   */
+  public static <T> T compute(BooleanSupplier canceled, Supplier<T> supplier) {
+    BooleanSupplier previous = TOKEN.get();
+    TOKEN.set(canceled);
+    try {
+      return supplier.get();
+    } finally {
+      if (previous != null) {
+        TOKEN.set(previous);
+      } else {
+        TOKEN.remove();
+      }
+    }
+  }
+
+  /**
+   * Abort the current conversion if its token or the current progress indicator signal a cancellation.
+   * Called from JRuby extensions, therefore keep this cheap.
+   *
+   * @throws ProcessCanceledException if the conversion should be aborted
+   */
+  public static void checkCanceled() {
+    BooleanSupplier token = TOKEN.get();
+    if (token != null && token.getAsBoolean()) {
+      throw new ProcessCanceledException();
+    }
+    ProgressManager.checkCanceled();
+  }
+
+  /**
+   * Exceptions thrown within an extension might be wrapped by JRuby or AsciidoctorJ.
+   * Re-throw a cancellation found in the causes of the exception, so that the caller doesn't treat it as a failed conversion.
+   */
+  public static void rethrowIfCanceled(Throwable ex) {
+    Throwable t = ex;
+    while (t != null) {
+      if (t instanceof ProcessCanceledException pce) {
+        throw pce;
+      }
+      t = t.getCause();
+    }
+  }
+
+}
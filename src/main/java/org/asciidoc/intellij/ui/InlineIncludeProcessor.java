@@ -1,11 +1,14 @@
 package org.asciidoc.intellij.ui;
 
 import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.refactoring.BaseRefactoringProcessor;
@@ -15,6 +18,7 @@ import com.intellij.usageView.UsageViewBundle;
 import com.intellij.usageView.UsageViewDescriptor;
 import org.asciidoc.intellij.AsciiDocBundle;
 import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -73,8 +77,14 @@ public class InlineIncludeProcessor extends BaseRefactoringProcessor {
       return new UsageInfo[]{new UsageInfo(myElement)};
     }
 
+    GlobalSearchScope scope = ProjectScope.getProjectScope(myProject);
+    VirtualFile file = myResolved.getVirtualFile();
+    if (file != null && !DumbService.isDumb(myProject)) {
+      // search only the files that might include the file, instead of all files with its name
+      scope = GlobalSearchScope.filesScope(myProject, AsciiDocIncludeIndex.getIncludingFiles(myProject, file)).intersectWith(scope);
+    }
     List<UsageInfo> usages = new ArrayList<>();
-    for (PsiReference ref : ReferencesSearch.search(myResolved, ProjectScope.getProjectScope(myProject), false)) {
+    for (PsiReference ref : ReferencesSearch.search(myResolved, scope, false)) {
       PsiElement element = ref.getElement();
       if (element instanceof AsciiDocBlockMacro) {
         if ("include".equals(((AsciiDocBlockMacro) element).getMacroName())) {
@@ -0,0 +1,160 @@
+package org.asciidoc.intellij.worker;
+
+import org.asciidoc.intellij.CollectingLogHandler;
+import org.asciidoc.intellij.asciidoc.PrependConfig;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Options;
+import org.asciidoctor.ast.Cursor;
+import org.asciidoctor.ast.Document;
+import org.asciidoctor.extension.Postprocessor;
+import org.asciidoctor.log.LogRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Entry point of a rendering worker process, started by {@link AsciiDocWorkerPool}.
+ * <p>
+ * The arguments describe the libraries and scripts to load: <code>require:&lt;library&gt;</code> requires a Ruby library,
+ * <code>resource:&lt;path&gt;</code> loads a Ruby script from the class path,
+ * <code>treeprocessor:&lt;class&gt;</code> registers a tree processor of a script loaded before.
+ * The process then reads requests from its standard input and writes responses to its standard output until the input is closed.
+ * <p>
+ * This runs outside the IDE, therefore it must not depend on any IntelliJ classes.
+ */
+public final class AsciiDocWorkerMain {
+
+  private AsciiDocWorkerMain() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    // the protocol uses the standard output, any output of Ruby libraries goes to the standard error instead
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+    DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+
+    // disable JUL logging of captured messages
+    Logger.getLogger("asciidoctor").setUseParentHandlers(false);
+
+    Asciidoctor asciidoctor = Asciidoctor.Factory.create();
+    // require openssl library first, see AsciiDocWrapper for details
+    asciidoctor.requireLibrary("openssl");
+    PrependConfig prependConfig = new PrependConfig();
+    asciidoctor.javaExtensionRegistry().preprocessor(prependConfig);
+    AttributesCollector attributesCollector = new AttributesCollector();
+    asciidoctor.javaExtensionRegistry().postprocessor(attributesCollector);
+    for (String arg : args) {
+      if (arg.startsWith("require:")) {
+        asciidoctor.requireLibrary(arg.substring("require:".length()));
+      } else if (arg.startsWith("resource:")) {
+        String name = arg.substring("resource:".length());
+        try (InputStream is = AsciiDocWorkerMain.class.getResourceAsStream(name)) {
+          if (is == null) {
+            throw new IOException("unable to load script " + name);
+          }
+          asciidoctor.rubyExtensionRegistry().loadClass(is);
+        }
+      } else if (arg.startsWith("treeprocessor:")) {
+        asciidoctor.rubyExtensionRegistry().treeprocessor(arg.substring("treeprocessor:".length()));
+      } else {
+        throw new IllegalArgumentException("unknown argument " + arg);
+      }
+    }
+
+    while (true) {
+      AsciiDocWorkerProtocol.Request request;
+      try {
+        request = AsciiDocWorkerProtocol.readRequest(in);
+      } catch (EOFException e) {
+        // the IDE closed the connection
+        break;
+      }
+      CollectingLogHandler logHandler = new CollectingLogHandler();
+      asciidoctor.registerLogHandler(logHandler);
+      prependConfig.setConfig(request.config() != null ? request.config() : "");
+      attributesCollector.attributes = new HashMap<>();
+      AsciiDocWorkerProtocol.Response response;
+      try {
+        Options options = Options.builder().build();
+        request.options().forEach((key, value) -> options.setOption(key, toInteger(value)));
+        String output;
+        if (request.type() == AsciiDocWorkerProtocol.CONVERT_TEXT) {
+          output = asciidoctor.convert(request.source(), options);
+        } else if (request.type() == AsciiDocWorkerProtocol.CONVERT_FILE) {
+          asciidoctor.convertFile(new File(request.source()), options);
+          output = null;
+        } else {
+          throw new IllegalArgumentException("unknown request type " + request.type());
+        }
+        response = new AsciiDocWorkerProtocol.Response(AsciiDocWorkerProtocol.STATUS_OK, output,
+          attributesCollector.attributes, toLogEntries(logHandler.getLogRecords()));
+      } catch (Exception | LinkageError e) {
+        e.printStackTrace();
+        response = new AsciiDocWorkerProtocol.Response(AsciiDocWorkerProtocol.STATUS_ERROR,
+          e.getClass().getCanonicalName() + ": " + e.getMessage(), new HashMap<>(), toLogEntries(logHandler.getLogRecords()));
+      } finally {
+        prependConfig.setConfig("");
+        asciidoctor.unregisterLogHandler(logHandler);
+      }
+      AsciiDocWorkerProtocol.writeResponse(out, response);
+    }
+    asciidoctor.close();
+  }
+
+  /**
+   * The protocol transfers all numbers as longs, while Asciidoctor expects integers for options like the safe mode.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object toInteger(Object value) {
+    if (value instanceof Long l && l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
+      return l.intValue();
+    } else if (value instanceof Map<?, ?> map) {
+      Map<String, Object> result = new HashMap<>();
+      ((Map<String, Object>) map).forEach((k, v) -> result.put(k, toInteger(v)));
+      return result;
+    }
+    return value;
+  }
+
+  private static List<AsciiDocWorkerProtocol.LogEntry> toLogEntries(List<LogRecord> logRecords) {
+    List<AsciiDocWorkerProtocol.LogEntry> result = new ArrayList<>(logRecords.size());
+    for (LogRecord logRecord : logRecords) {
+      Cursor cursor = logRecord.getCursor();
+      result.add(new AsciiDocWorkerProtocol.LogEntry(logRecord.getSeverity().name(), logRecord.getMessage(),
+        cursor != null ? cursor.getFile() : null,
+        cursor != null ? cursor.getPath() : null,
+        cursor != null ? cursor.getDir() : null,
+        cursor != null ? cursor.getLineNumber() : 0));
+    }
+    return result;
+  }
+
+  /**
+   * Collect the attributes of the document after it has been converted, for example to detect missing diagram extensions.
+   */
+  private static class AttributesCollector extends Postprocessor {
+    private Map<String, String> attributes = new HashMap<>();
+
+    @Override
+    public String process(Document document, String output) {
+      document.getAttributes().forEach((s, o) -> attributes.put(s.toLowerCase(Locale.US), String.valueOf(o)));
+      return output;
+    }
+  }
+
+}
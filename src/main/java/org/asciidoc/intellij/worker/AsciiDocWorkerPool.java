@@ -0,0 +1,255 @@
+package org.asciidoc.intellij.worker;
+
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.registry.Registry;
+import org.asciidoc.intellij.AsciiDocPlugin;
+import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
+import org.asciidoc.intellij.threading.AsciiDocRenderCancellation;
+import org.asciidoctor.Asciidoctor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Runs conversions in separate JVM processes, so that conversions for the preview, the annotator and exports don't compete
+ * with the IDE for heap, and the garbage collection of large documents and diagrams doesn't stall the IDE.
+ * <p>
+ * Each worker process has a fixed set of libraries and scripts loaded, therefore workers are only re-used for the same setup.
+ * The number of processes is limited by the registry key <code>asciidoc.render.worker.count</code>; zero disables the workers.
+ * The maximum heap of each process in megabytes is set by the registry key <code>asciidoc.render.worker.memory</code>.
+ */
+public final class AsciiDocWorkerPool {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocWorkerPool.class);
+
+  private static final Object LOCK = new Object();
+
+  private static final List<Worker> IDLE = new ArrayList<>();
+
+  private static int busy;
+
+  private static boolean shutdown;
+
+  private AsciiDocWorkerPool() {
+  }
+
+  private static final class Worker {
+    private final List<String> setup;
+    private final Process process;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+
+    private Worker(List<String> setup, Process process) {
+      this.setup = setup;
+      this.process = process;
+      this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+      this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    private AsciiDocWorkerProtocol.Response exchange(AsciiDocWorkerProtocol.Request request) throws IOException {
+      AsciiDocWorkerProtocol.writeRequest(out, request);
+      return AsciiDocWorkerProtocol.readResponse(in);
+    }
+
+    private void destroy() {
+      // destroying the process also stops a conversion that is still running
+      process.destroy();
+    }
+  }
+
+  public static boolean isEnabled() {
+    return getWorkerCount() > 0;
+  }
+
+  private static int getWorkerCount() {
+    return Registry.intValue("asciidoc.render.worker.count", 0);
+  }
+
+  /**
+   * Run a request in a worker with the given setup, starting a new worker if necessary.
+   * If the current progress indicator is cancelled, a {@link ProcessCanceledException} is thrown. The worker of a file conversion
+   * is stopped then, while the worker of a text conversion completes the conversion and is re-used afterwards,
+   * as these conversions are short, and starting a new worker takes several seconds.
+   *
+   * @param setup libraries and scripts to load in the worker, see {@link AsciiDocWorkerMain}
+   */
+  public static @NotNull AsciiDocWorkerProtocol.Response execute(@NotNull List<String> setup, @NotNull AsciiDocWorkerProtocol.Request request) throws IOException {
+    Worker worker = borrow(setup);
+    Future<AsciiDocWorkerProtocol.Response> future;
+    try {
+      future = ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        boolean reusable = false;
+        try {
+          AsciiDocWorkerProtocol.Response response = worker.exchange(request);
+          reusable = true;
+          return response;
+        } finally {
+          // release the worker here, so that the worker of a cancelled request is only re-used once it is idle again
+          release(worker, reusable);
+        }
+      });
+    } catch (RuntimeException e) {
+      release(worker, false);
+      throw e;
+    }
+    try {
+      while (true) {
+        try {
+          return future.get(10, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // checks both the progress indicator and the cancellation of a preview that is no longer needed
+          AsciiDocRenderCancellation.checkCanceled();
+        }
+      }
+    } catch (ProcessCanceledException e) {
+      if (request.type() == AsciiDocWorkerProtocol.CONVERT_FILE) {
+        worker.destroy();
+      }
+      throw e;
+    } catch (InterruptedException e) {
+      worker.destroy();
+      throw new ProcessCanceledException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static Worker borrow(List<String> setup) throws IOException {
+    synchronized (LOCK) {
+      while (busy >= getWorkerCount()) {
+        if (shutdown) {
+          throw new ProcessCanceledException();
+        }
+        try {
+          LOCK.wait(100);
+        } catch (InterruptedException e) {
+          throw new ProcessCanceledException(e);
+        }
+        ProgressManager.checkCanceled();
+      }
+      if (shutdown) {
+        throw new ProcessCanceledException();
+      }
+      busy++;
+      for (Worker worker : IDLE) {
+        if (worker.setup.equals(setup)) {
+          IDLE.remove(worker);
+          return worker;
+        }
+      }
+      if (busy + IDLE.size() > getWorkerCount() && !IDLE.isEmpty()) {
+        // stop an idle worker with a different setup to stay within the limit of processes
+        IDLE.remove(0).destroy();
+      }
+    }
+    try {
+      return start(setup);
+    } catch (IOException | RuntimeException e) {
+      synchronized (LOCK) {
+        busy--;
+        LOCK.notifyAll();
+      }
+      throw e;
+    }
+  }
+
+  private static void release(Worker worker, boolean reusable) {
+    synchronized (LOCK) {
+      busy--;
+      if (reusable && !shutdown && worker.process.isAlive()) {
+        IDLE.add(worker);
+      } else {
+        worker.destroy();
+      }
+      LOCK.notifyAll();
+    }
+  }
+
+  private static Worker start(List<String> setup) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", SystemInfo.isWindows ? "java.exe" : "java").toString());
+    // JRuby needs a larger stack than the default for deeply nested documents
+    command.add("-Xss4m");
+    command.add("-Xmx" + Registry.intValue("asciidoc.render.worker.memory", 1024) + "m");
+    command.add("-Dfile.encoding=UTF-8");
+    // scripts shared with the IDE check this to skip calls into the IDE's classes
+    command.add("-Dasciidoc.worker=true");
+    command.add("-cp");
+    command.add(String.join(File.pathSeparator, classPath()));
+    command.add(AsciiDocWorkerMain.class.getName());
+    command.addAll(setup);
+    LOG.info("starting AsciiDoc worker with " + setup);
+    Process process = new ProcessBuilder(command)
+      .redirectError(ProcessBuilder.Redirect.appendTo(Path.of(PathManager.getLogPath(), "asciidoc-worker.log").toFile()))
+      .start();
+    return new Worker(setup, process);
+  }
+
+  private static List<String> classPath() throws IOException {
+    List<String> classPath = new ArrayList<>();
+    IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(AsciiDocPlugin.PLUGIN_ID));
+    Path lib = plugin != null ? plugin.getPluginPath().resolve("lib") : null;
+    if (lib != null && Files.isDirectory(lib)) {
+      try (Stream<Path> jars = Files.list(lib)) {
+        jars.filter(path -> path.getFileName().toString().endsWith(".jar")).forEach(path -> classPath.add(path.toString()));
+      }
+    } else {
+      // running from the sources, for example in tests
+      classPath.add(PathManager.getJarPathForClass(AsciiDocWorkerMain.class));
+      classPath.add(PathManager.getJarPathForClass(Asciidoctor.class));
+      classPath.add(PathManager.getJarPathForClass(org.jruby.Ruby.class));
+    }
+    File pdf = AsciiDocDownloaderUtil.getAsciidoctorJPdfFile();
+    if (pdf.exists()) {
+      classPath.add(pdf.getAbsolutePath());
+    }
+    if (AsciiDocDownloaderUtil.downloadCompleteAsciidoctorJDiagram()) {
+      for (File file : List.of(AsciiDocDownloaderUtil.getAsciidoctorJDiagramFile(),
+        AsciiDocDownloaderUtil.getAsciidoctorJDiagramPlantumlFile(),
+        AsciiDocDownloaderUtil.getAsciidoctorJDiagramDitaaminiFile(),
+        AsciiDocDownloaderUtil.getAsciidoctorJDiagramBatikFile(),
+        AsciiDocDownloaderUtil.getAsciidoctorJDiagramJSyntraxFile())) {
+        classPath.add(file.getAbsolutePath());
+      }
+    }
+    return classPath;
+  }
+
+  /**
+   * Stop all workers, for example before the plugin is unloaded.
+   */
+  public static void shutdown() {
+    synchronized (LOCK) {
+      shutdown = true;
+      IDLE.forEach(Worker::destroy);
+      IDLE.clear();
+      LOCK.notifyAll();
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+package org.asciidoc.intellij.worker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages exchanged between the IDE and a rendering worker process via its standard input and output.
+ * <p>
+ * This class is used in the worker process, therefore it must not depend on any IntelliJ classes.
+ * Each message is a sequence of values, each value prefixed with a tag for its type.
+ */
+public final class AsciiDocWorkerProtocol {
+
+  /**
+   * Convert the text passed in the request and return the result, for example for the preview.
+   */
+  public static final int CONVERT_TEXT = 1;
+
+  /**
+   * Convert the file passed in the request and write the result next to it.
+   */
+  public static final int CONVERT_FILE = 2;
+
+  public static final int STATUS_OK = 0;
+  public static final int STATUS_ERROR = 1;
+
+  private static final int TAG_NULL = 0;
+  private static final int TAG_STRING = 1;
+  private static final int TAG_BOOLEAN = 2;
+  private static final int TAG_LONG = 3;
+  private static final int TAG_MAP = 4;
+  private static final int TAG_LIST = 5;
+
+  private AsciiDocWorkerProtocol() {
+  }
+
+  /**
+   * @param type    the type of the request, either {@link #CONVERT_TEXT} or {@link #CONVERT_FILE}
+   * @param source  the text or the path of the file to convert
+   * @param config  content of the <code>.asciidoctorconfig</code> files to prepend
+   * @param options options for Asciidoctor as prepared by the IDE
+   */
+  public record Request(int type, String source, String config, Map<String, Object> options) {
+  }
+
+  public record LogEntry(String severity, String message, String file, String path, String dir, int lineNumber) {
+  }
+
+  /**
+   * @param output     the converted text for {@link #CONVERT_TEXT}, or the error message if the status is {@link #STATUS_ERROR}
+   * @param attributes attributes of the document after it has been converted
+   */
+  public record Response(int status, String output, Map<String, String> attributes, List<LogEntry> logEntries) {
+  }
+
+  public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+    out.writeInt(request.type());
+    writeValue(out, request.source());
+    writeValue(out, request.config());
+    writeValue(out, request.options());
+    out.flush();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static Request readRequest(DataInputStream in) throws IOException {
+    int type = in.readInt();
+    String source = (String) readValue(in);
+    String config = (String) readValue(in);
+    Map<String, Object> options = (Map<String, Object>) readValue(in);
+    return new Request(type, source, config, options);
+  }
+
+  public static void writeResponse(DataOutputStream out, Response response) throws IOException {
+    out.writeInt(response.status());
+    writeValue(out, response.output());
+    writeValue(out, response.attributes());
+    out.writeInt(response.logEntries().size());
+    for (LogEntry entry : response.logEntries()) {
+      writeValue(out, entry.severity());
+      writeValue(out, entry.message());
+      writeValue(out, entry.file());
+      writeValue(out, entry.path());
+      writeValue(out, entry.dir());
+      out.writeInt(entry.lineNumber());
+    }
+    out.flush();
+  }
+
+  @SuppressWarnings("unchecked")
+  public static Response readResponse(DataInputStream in) throws IOException {
+    int status = in.readInt();
+    String output = (String) readValue(in);
+    Map<String, String> attributes = (Map<String, String>) (Map<String, ?>) readValue(in);
+    int count = in.readInt();
+    List<LogEntry> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      entries.add(new LogEntry((String) readValue(in), (String) readValue(in), (String) readValue(in),
+        (String) readValue(in), (String) readValue(in), in.readInt()));
+    }
+    return new Response(status, output, attributes, entries);
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(TAG_NULL);
+    } else if (value instanceof Boolean b) {
+      out.writeByte(TAG_BOOLEAN);
+      out.writeBoolean(b);
+    } else if (value instanceof Number n) {
+      out.writeByte(TAG_LONG);
+      out.writeLong(n.longValue());
+    } else if (value instanceof Map<?, ?> map) {
+      out.writeByte(TAG_MAP);
+      out.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(out, String.valueOf(entry.getKey()));
+        writeValue(out, entry.getValue());
+      }
+    } else if (value instanceof List<?> list) {
+      out.writeByte(TAG_LIST);
+      out.writeInt(list.size());
+      for (Object item : list) {
+        writeValue(out, item);
+      }
+    } else {
+      // strings, and everything else that Asciidoctor would convert to a string anyway
+      byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+      out.writeByte(TAG_STRING);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    int tag = in.readByte();
+    switch (tag) {
+      case TAG_NULL -> {
+        return null;
+      }
+      case TAG_STRING -> {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+      case TAG_BOOLEAN -> {
+        return in.readBoolean();
+      }
+      case TAG_LONG -> {
+        return in.readLong();
+      }
+      case TAG_MAP -> {
+        int size = in.readInt();
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; ++i) {
+          map.put((String) readValue(in), readValue(in));
+        }
+        return map;
+      }
+      case TAG_LIST -> {
+        int size = in.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+          list.add(readValue(in));
+        }
+        return list;
+      }
+      default -> throw new IOException("unknown tag " + tag);
+    }
+  }
+
+}
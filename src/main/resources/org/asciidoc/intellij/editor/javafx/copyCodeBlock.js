@@ -82,14 +82,14 @@ window.__IntelliJTools.addCopyButton = function (block, codeEl, lang) {
  * Add a copy code button overlay to each source code listing block.
  * The button is invisible by default and fades in on mouse-over of the block.
  */
-window.__IntelliJTools.addCopyButtons = function () {
+window.__IntelliJTools.addCopyButtons = function (nodes) {
   if (!window.JavaPanelBridge || !window.JavaPanelBridge.runCode) {
     return
   }
 
   window.__IntelliJTools.injectCopyButtonStyle()
 
-  let blocks = document.querySelectorAll('.listingblock')
+  let blocks = nodes ? window.__IntelliJTools.findAll(nodes, '.listingblock') : document.querySelectorAll('.listingblock')
   for (let i = 0; i < blocks.length; i++) {
     let block = blocks[i]
 
@@ -0,0 +1,96 @@
+if (window.__IntelliJTools === undefined) {
+  window.__IntelliJTools = {}
+}
+
+/**
+ * Return the section deferred by a placeholder, see AsciiDocLazyContent.java.
+ *
+ * @return null if the node is not a placeholder
+ */
+window.__IntelliJTools.lazySection = function (node) {
+  if (node.nodeType !== Node.ELEMENT_NODE || !node.classList.contains('asciidoc-lazy')) {
+    return null
+  }
+  var template = node.firstElementChild
+  return template && template.content ? template.content.firstElementChild : null
+}
+
+/**
+ * Replace a placeholder by its section, and process the section like the rest of the preview.
+ */
+window.__IntelliJTools.materialize = function (placeholder) {
+  var tools = window.__IntelliJTools
+  var template = placeholder.firstElementChild
+  if (!template || !template.content || !placeholder.parentNode) {
+    return
+  }
+  var section = document.importNode(template.content, true).firstElementChild
+  if (!section) {
+    return
+  }
+  // the section has the same key as its placeholder, therefore the next update will keep it when it didn't change
+  tools.rememberContent && tools.rememberContent(section)
+  var above = placeholder.getBoundingClientRect().bottom <= 0
+  var estimatedHeight = placeholder.offsetHeight
+  placeholder.parentNode.replaceChild(section, placeholder)
+  if (above) {
+    // the height of the placeholder was only an estimate, keep the visible content in place
+    window.scrollBy(0, section.offsetHeight - estimatedHeight)
+  }
+  if (typeof hljs !== 'undefined') {
+    tools.findAll([section], 'pre.highlight > code').forEach(function (el) {
+      hljs.highlightElement(el)
+    })
+  }
+  if ('MathJax' in window) {
+    MathJax.Hub.Typeset(section)
+  }
+  if (window.mermaid !== undefined) {
+    window.mermaid.run()
+  }
+  if (window.initTabs !== undefined) {
+    window.initTabs(tools.findAll([section], '.tabs'))
+  }
+  tools.processLinks && tools.processLinks([section])
+  tools.processImages && tools.processImages([section])
+  tools.pickSourceLine && tools.pickSourceLine(tools.lineCount, [section])
+  tools.addCopyButtons && tools.addCopyButtons([section])
+  tools.addRunButtons && tools.addRunButtons([section])
+}
+
+/**
+ * Insert deferred sections once they come close to the visible area.
+ * Call this after each update of the content to observe the new placeholders.
+ */
+window.__IntelliJTools.observeLazy = (function () {
+  var observer = null
+
+  return function () {
+    var placeholders = document.querySelectorAll('.asciidoc-lazy')
+    if (observer !== null) {
+      // stop observing placeholders that an update removed
+      observer.disconnect()
+    }
+    if (placeholders.length === 0) {
+      return
+    }
+    if (typeof IntersectionObserver === 'undefined') {
+      placeholders.forEach(window.__IntelliJTools.materialize)
+      return
+    }
+    if (observer === null) {
+      // insert sections one screen ahead, so that they are ready when scrolling
+      observer = new IntersectionObserver(function (entries) {
+        entries.forEach(function (entry) {
+          if (entry.isIntersecting) {
+            observer.unobserve(entry.target)
+            window.__IntelliJTools.materialize(entry.target)
+          }
+        })
+      }, { rootMargin: '100% 0px' })
+    }
+    placeholders.forEach(function (placeholder) {
+      observer.observe(placeholder)
+    })
+  }
+})()
@@ -0,0 +1,156 @@
+if (window.__IntelliJTools === undefined) {
+  window.__IntelliJTools = {}
+}
+
+/**
+ * Table of the blocks with a source line and their position in the page, in document order.
+ * It is built once after each change of the content or the layout, so that scrolling in the editor and clicking in the preview
+ * don't need to search all blocks and measure their position each time. The IDE receives a copy of the table to scroll the preview,
+ * see AsciiDocLineIndex.java.
+ */
+window.__IntelliJTools.lineIndex = (function () {
+
+  var entries = null
+  var timer = null
+  var resizeObserver = null
+
+  function build() {
+    var tools = window.__IntelliJTools
+    var blocks = document.getElementsByClassName('has-source-line')
+    var result = []
+    var open = []
+    var scrollY = window.scrollY
+    for (var i = 0; i < blocks.length; i++) {
+      var block = blocks[i]
+      var found = tools.getLine(block)
+      // skip hidden blocks like collapsed blocks and inactive tabs, they have no position
+      if (found === null || block.getClientRects().length === 0) {
+        continue
+      }
+      var rect = block.getBoundingClientRect()
+      var entry = {
+        element: block,
+        file: found[1],
+        line: Number(found[2]),
+        top: rect.top + scrollY,
+        height: rect.height,
+        end: -1
+      }
+      // the blocks within a block follow it directly, remember where they end
+      while (open.length > 0 && !open[open.length - 1].element.contains(block)) {
+        open.pop().end = result.length
+      }
+      block.__intellijLineIndex = result.length
+      open.push(entry)
+      result.push(entry)
+    }
+    while (open.length > 0) {
+      open.pop().end = result.length
+    }
+    return result
+  }
+
+  /**
+   * Lines of the main document as <code>line:top:height</code>, with a line of -1 for each block of an included file.
+   * Lines that are lower than a previous line are left out, so that the lines are sorted.
+   */
+  function serialize(index) {
+    var parts = []
+    var max = 0
+    for (var i = 0; i < index.length; i++) {
+      var entry = index[i]
+      if (entry.file !== 'stdin') {
+        parts.push('-1:0:0')
+      } else if (entry.line >= max) {
+        max = entry.line
+        parts.push(entry.line + ':' + Math.round(entry.top) + ':' + Math.round(entry.height))
+      }
+    }
+    return parts.join(',')
+  }
+
+  function update() {
+    timer = null
+    entries = build()
+    if (window.JavaPanelBridge && window.JavaPanelBridge.lineIndex) {
+      window.JavaPanelBridge.lineIndex(serialize(entries))
+    }
+  }
+
+  return {
+    /**
+     * Rebuild the table once the content stops changing, for example while images load or MathJax typesets formulas.
+     */
+    invalidate: function () {
+      entries = null
+      if (resizeObserver === null && typeof ResizeObserver !== 'undefined') {
+        // images, formulas, diagrams and inserted sections change the height of the page
+        resizeObserver = new ResizeObserver(window.__IntelliJTools.lineIndex.invalidate)
+        resizeObserver.observe(document.body)
+      }
+      if (timer !== null) {
+        clearTimeout(timer)
+      }
+      timer = setTimeout(update, 100)
+    },
+
+    /**
+     * @return the entries of the table, built now if the content changed since it has been built last
+     */
+    get: function () {
+      if (entries === null) {
+        if (timer !== null) {
+          clearTimeout(timer)
+        }
+        update()
+      }
+      return entries
+    }
+  }
+})()
+
+/**
+ * Find the source line of a position within a block, and the block that follows it.
+ *
+ * @param block the block that has been clicked
+ * @param y the position in the page
+ * @return null if the block is not in the table
+ */
+window.__IntelliJTools.findLine = function (block, y) {
+  var entries = window.__IntelliJTools.lineIndex.get()
+  var index = block.__intellijLineIndex
+  if (index === undefined || entries[index] === undefined || entries[index].element !== block) {
+    return null
+  }
+  // the last block within the clicked block that starts above the position
+  var low = index + 1
+  var high = entries[index].end - 1
+  var start = index
+  while (low <= high) {
+    var mid = (low + high) >> 1
+    if (entries[mid].top < y) {
+      start = mid
+      low = mid + 1
+    } else {
+      high = mid - 1
+    }
+  }
+  var result = {
+    startY: entries[start].top,
+    startLine: entries[start].line,
+    startFile: entries[start].file,
+    // there might be no further block, therefore assume that the end is at the end of this block
+    endY: entries[start].top + entries[start].height,
+    endLine: window.__IntelliJTools.lineCount,
+    endFile: 'stdin'
+  }
+  if (start + 1 < entries.length) {
+    var next = entries[start + 1]
+    if (next.top > result.endY) {
+      result.endY = next.top
+    }
+    result.endLine = next.line - 1
+    result.endFile = next.file
+  }
+  return result
+}
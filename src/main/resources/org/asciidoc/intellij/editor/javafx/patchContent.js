@@ -0,0 +1,239 @@
+if (window.__IntelliJTools === undefined) {
+  window.__IntelliJTools = {}
+}
+
+/**
+ * Find all elements matching the selector in the given nodes, including the nodes themselves.
+ *
+ * The scripts that add listeners and buttons to the preview, like processImages() or addRunButtons(), accept an optional
+ * array of nodes and use this function to look only at them. patchContent() and the lazily loaded sections pass the nodes
+ * they inserted, as the nodes that stayed in the preview have their listeners and buttons already.
+ * Without nodes, these scripts process the whole document.
+ */
+window.__IntelliJTools.findAll = function (nodes, selector) {
+  var result = []
+  for (var i = 0; i < nodes.length; i++) {
+    var node = nodes[i]
+    if (node.nodeType !== Node.ELEMENT_NODE) {
+      continue
+    }
+    if (node.matches(selector)) {
+      result.push(node)
+    }
+    var children = node.querySelectorAll(selector)
+    for (var j = 0; j < children.length; j++) {
+      result.push(children[j])
+    }
+  }
+  return result
+}
+
+// the source line is part of the CSS class, see sourceline-treeprocessor.rb; it is the number after the last dash
+window.__IntelliJTools.LINE_PATTERN = /(data-line-[^\s"]*)-\d+(?=[\s"])/g
+
+/**
+ * Key of a node that doesn't change when only the source lines of the node change, for example when lines are added before it.
+ */
+window.__IntelliJTools.contentKey = function (node) {
+  var text
+  if (node.nodeType === Node.ELEMENT_NODE && node.classList.contains('asciidoc-lazy') && node.firstElementChild) {
+    // a placeholder has the same key as its section, so that a section inserted on scrolling is kept as long as it doesn't change
+    text = node.firstElementChild.innerHTML.replace(window.__IntelliJTools.LINE_PATTERN, '$1')
+  } else if (node.nodeType === Node.ELEMENT_NODE) {
+    text = node.outerHTML.replace(window.__IntelliJTools.LINE_PATTERN, '$1')
+  } else {
+    text = '#' + node.nodeType + ':' + node.textContent
+  }
+  // store a hash instead of the text, as the keys of nested sections would otherwise need several times the memory of the document
+  var hash = 0
+  for (var i = 0; i < text.length; i++) {
+    hash = (Math.imul(hash, 31) + text.charCodeAt(i)) | 0
+  }
+  return text.length + ':' + hash
+}
+
+/**
+ * Sections are patched block by block, all other nodes are replaced as a whole.
+ */
+window.__IntelliJTools.isContainer = function (node) {
+  return node.nodeType === Node.ELEMENT_NODE && !node.classList.contains('asciidoc-lazy') &&
+    (node.id === 'content' || /(^|\s)(sect[0-6]|sectionbody)(\s|$)/.test(node.className))
+}
+
+window.__IntelliJTools.shellKey = function (node) {
+  return node.tagName + ' ' + (node.id || '') + ' ' + node.className.replace(window.__IntelliJTools.LINE_PATTERN, '$1')
+}
+
+/**
+ * Store the keys of the content before scripts like highlight.js and MathJax modify it.
+ */
+window.__IntelliJTools.rememberContent = function (node) {
+  if (node.__intellijKey === undefined) {
+    node.__intellijKey = window.__IntelliJTools.contentKey(node)
+  }
+  if (window.__IntelliJTools.isContainer(node)) {
+    for (var i = 0; i < node.childNodes.length; i++) {
+      window.__IntelliJTools.rememberContent(node.childNodes[i])
+    }
+  }
+}
+
+/**
+ * Update the source line of unchanged blocks that moved, so that scrolling and clicking in the preview still finds the right line.
+ */
+window.__IntelliJTools.updateLines = function (oldNode, newNode, selfOnly) {
+  var tools = window.__IntelliJTools
+  var oldSection = tools.lazySection ? tools.lazySection(oldNode) : null
+  var newSection = tools.lazySection ? tools.lazySection(newNode) : null
+  if (oldSection || newSection) {
+    // compare the sections instead of their placeholders, and update the placeholder that stays in the preview as well
+    if (oldSection) {
+      tools.updateLines(oldNode, newNode, true)
+    }
+    tools.updateLines(oldSection || oldNode, newSection || newNode, selfOnly)
+    return
+  }
+  var oldElements = selfOnly ? [oldNode] : window.__IntelliJTools.findAll([oldNode], '.has-source-line')
+  var newElements = selfOnly ? [newNode] : window.__IntelliJTools.findAll([newNode], '.has-source-line')
+  if (oldElements.length !== newElements.length) {
+    return
+  }
+  for (var i = 0; i < oldElements.length; i++) {
+    var oldMatch = oldElements[i].className.match(/data-line-[^\s]*/)
+    var newMatch = newElements[i].className.match(/data-line-[^\s]*/)
+    if (oldMatch && newMatch && oldMatch[0] !== newMatch[0]) {
+      oldElements[i].classList.replace(oldMatch[0], newMatch[0])
+    }
+  }
+}
+
+/**
+ * Compare the children of two nodes, and record the operations to turn the old children into the new children.
+ * Unchanged children at the start and the end are kept, a single changed section is compared recursively,
+ * and all other children in between are replaced.
+ *
+ * @return false if the old content has no keys, and therefore can't be compared
+ */
+window.__IntelliJTools.diffChildren = function (oldParent, newParent, operations) {
+  var tools = window.__IntelliJTools
+  var oldNodes = Array.prototype.slice.call(oldParent.childNodes)
+  var newNodes = Array.prototype.slice.call(newParent.childNodes)
+  for (var i = 0; i < oldNodes.length; i++) {
+    if (oldNodes[i].__intellijKey === undefined) {
+      return false
+    }
+  }
+  for (i = 0; i < newNodes.length; i++) {
+    newNodes[i].__intellijKey = tools.contentKey(newNodes[i])
+  }
+  var start = 0
+  while (start < oldNodes.length && start < newNodes.length && oldNodes[start].__intellijKey === newNodes[start].__intellijKey) {
+    operations.push({ type: 'lines', oldNode: oldNodes[start], newNode: newNodes[start] })
+    start++
+  }
+  var oldEnd = oldNodes.length
+  var newEnd = newNodes.length
+  while (oldEnd > start && newEnd > start && oldNodes[oldEnd - 1].__intellijKey === newNodes[newEnd - 1].__intellijKey) {
+    oldEnd--
+    newEnd--
+    operations.push({ type: 'lines', oldNode: oldNodes[oldEnd], newNode: newNodes[newEnd] })
+  }
+  if (oldEnd - start === 1 && newEnd - start === 1 &&
+    tools.isContainer(oldNodes[start]) && tools.isContainer(newNodes[start]) &&
+    tools.shellKey(oldNodes[start]) === tools.shellKey(newNodes[start])) {
+    if (!tools.diffChildren(oldNodes[start], newNodes[start], operations)) {
+      return false
+    }
+    operations.push({ type: 'key', oldNode: oldNodes[start], newNode: newNodes[start] })
+  } else if (oldEnd > start || newEnd > start) {
+    operations.push({
+      type: 'replace',
+      parent: oldParent,
+      remove: oldNodes.slice(start, oldEnd),
+      insert: newNodes.slice(start, newEnd),
+      before: oldEnd < oldNodes.length ? oldNodes[oldEnd] : null
+    })
+  }
+  return true
+}
+
+/**
+ * Update the content of the preview by replacing only the blocks that changed.
+ * New blocks are highlighted and typeset before they are inserted, so that the preview doesn't flicker.
+ * Open collapsible blocks, selected tabs and other state of unchanged blocks is preserved.
+ *
+ * @param html HTML with the new content element
+ * @param finish called with the inserted nodes once the preview has been updated
+ * @return false if the content can't be patched, and needs to be replaced as a whole
+ */
+window.__IntelliJTools.patchContent = function (html, finish) {
+  var tools = window.__IntelliJTools
+  var elem = document.getElementById('content')
+  if (!elem || !elem.parentNode || elem.__intellijKey === undefined) {
+    return false
+  }
+  var staging = document.createElement('div')
+  staging.innerHTML = html
+  var content = staging.firstChild
+  if (!content || content.id !== 'content') {
+    return false
+  }
+  var operations = []
+  if (!tools.diffChildren(elem, content, operations)) {
+    return false
+  }
+  var inserted = []
+  for (var i = 0; i < operations.length; i++) {
+    if (operations[i].type === 'replace') {
+      Array.prototype.push.apply(inserted, operations[i].insert)
+    }
+  }
+  for (i = 0; i < inserted.length; i++) {
+    tools.rememberContent(inserted[i])
+  }
+  staging.style.cssText = 'display: none'
+  // need to add the element to the DOM as MathJAX will use document.getElementById in some places
+  document.body.appendChild(staging)
+  if (typeof hljs !== 'undefined') {
+    tools.findAll(inserted, 'pre.highlight > code').forEach(function (el) {
+      hljs.highlightElement(el)
+    })
+  }
+
+  function apply() {
+    for (var i = 0; i < operations.length; i++) {
+      var operation = operations[i]
+      if (operation.type === 'lines') {
+        tools.updateLines(operation.oldNode, operation.newNode, false)
+      } else if (operation.type === 'key') {
+        tools.updateLines(operation.oldNode, operation.newNode, true)
+        operation.oldNode.__intellijKey = operation.newNode.__intellijKey
+      } else if (operation.type === 'replace') {
+        operation.remove.forEach(function (node) {
+          operation.parent.removeChild(node)
+        })
+        operation.insert.forEach(function (node) {
+          operation.parent.insertBefore(node, operation.before)
+        })
+      }
+    }
+    staging.parentNode.removeChild(staging)
+    finish(inserted)
+  }
+
+  var errortext = document.getElementById('mathjaxerrortext')
+  var errorformula = document.getElementById('mathjaxerrorformula')
+  if (errorformula && errortext && inserted.length > 0) {
+    errortext.textContent = ''
+    errorformula.textContent = ''
+  }
+  var elements = inserted.filter(function (node) {
+    return node.nodeType === Node.ELEMENT_NODE
+  })
+  if ('MathJax' in window && elements.length > 0) {
+    MathJax.Hub.Typeset(elements, apply)
+  } else {
+    apply()
+  }
+  return true
+}
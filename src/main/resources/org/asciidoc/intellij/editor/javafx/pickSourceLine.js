@@ -33,6 +33,14 @@ window.__IntelliJTools.lineCount = 0;
   return offset
 }
 
+window.__IntelliJTools.interpolateLine = function (found, y) {
+  if (found.startFile === found.endFile) {
+    return found.startLine + (y - found.startY) * (found.endLine - found.startLine) / (found.endY - found.startY);
+  } else {
+    return found.startLine;
+  }
+}
+
 window.__IntelliJTools.scrollEditorToLine = function (event) {
   try {
     if (event.target.nodeName === 'DETAILS' || event.target.nodeName === 'SUMMARY') {
@@ -46,6 +54,13 @@ window.__IntelliJTools.scrollEditorToLine = function (event) {
       event.stopPropagation();
       return;
     }
+    // use the table of source lines if available, this avoids measuring all blocks on each click
+    var found = window.__IntelliJTools.findLine ? window.__IntelliJTools.findLine(event.currentTarget, event.clientY + window.scrollY) : null;
+    if (found !== null) {
+      window.JavaPanelBridge.scrollEditorToLine(window.__IntelliJTools.interpolateLine(found, event.clientY + window.scrollY) + ":" + found.startFile);
+      event.stopPropagation();
+      return;
+    }
     var blocks = document.getElementsByClassName('has-source-line');
     var startY;
     var startFile = 'stdin';
@@ -95,12 +110,9 @@ window.__IntelliJTools.scrollEditorToLine = function (event) {
         break;
       }
     }
-    var editorLine;
-    if (startFile === endFile) {
-      editorLine = startLine + (event.clientY + window.scrollY - startY) * (endLine - startLine) / (endY - startY);
-    } else {
-      editorLine = startLine;
-    }
+    var editorLine = window.__IntelliJTools.interpolateLine({
+      startY: startY, startLine: startLine, startFile: startFile, endY: endY, endLine: endLine, endFile: endFile
+    }, event.clientY + window.scrollY);
     window.JavaPanelBridge.scrollEditorToLine(editorLine + ":" + startFile);
     event.stopPropagation();
   } catch (e) {
@@ -108,10 +120,10 @@ window.__IntelliJTools.scrollEditorToLine = function (event) {
   }
 }
 
-window.__IntelliJTools.pickSourceLine = function (lc) {
+window.__IntelliJTools.pickSourceLine = function (lc, nodes) {
 
   // the sourcelines will be as CSS class elements that also have class has-source-line
-  var blocks = document.getElementsByClassName('has-source-line');
+  var blocks = nodes ? window.__IntelliJTools.findAll(nodes, '.has-source-line') : document.getElementsByClassName('has-source-line');
 
   for (var i = 0; i < blocks.length; i++) {
     blocks[i].addEventListener('click', window.__IntelliJTools.scrollEditorToLine);
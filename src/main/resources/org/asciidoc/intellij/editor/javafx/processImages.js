@@ -7,8 +7,8 @@ window.__IntelliJTools.processImageClick = function (event) {
   window.JavaPanelBridge.saveImage(this.src);
 }
 
-window.__IntelliJTools.processImages = function () {
-  var links = document.getElementsByTagName("img");
+window.__IntelliJTools.processImages = function (nodes) {
+  var links = nodes ? window.__IntelliJTools.findAll(nodes, "img") : document.getElementsByTagName("img");
   for (var i = 0; i < links.length; ++i) {
     var link = links[i];
     link.addEventListener('contextmenu', window.__IntelliJTools.processImageClick);
@@ -32,12 +32,12 @@ window.__IntelliJTools.processClick = function (event) {
   return false;
 }
 
-window.__IntelliJTools.processLinks = function () {
+window.__IntelliJTools.processLinks = function (nodes) {
   // This will work for inlined SVG diagrams.
   // This will NOT work for interactive SVG diagrams, as these will be inaccessible for JavaScript
   //    (possibly due to file:// URLs and cross-domain concerns in browsers)
 
-  var links = document.getElementsByTagName("a");
+  var links = nodes ? window.__IntelliJTools.findAll(nodes, "a") : document.getElementsByTagName("a");
   // window.JavaPanelBridge.log(links.length)
   for (var i = 0; i < links.length; ++i) {
     var link = links[i];
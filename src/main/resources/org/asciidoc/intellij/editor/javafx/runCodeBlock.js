@@ -79,14 +79,14 @@ window.__IntelliJTools.addRunButton = function (block, codeEl, lang) {
  * that are executable. The button is invisible by default
  * and fades in on mouse-over of the block.
  */
-window.__IntelliJTools.addRunButtons = function () {
+window.__IntelliJTools.addRunButtons = function (nodes) {
   if (!window.JavaPanelBridge || !window.JavaPanelBridge.runCode) {
     return
   }
 
   window.__IntelliJTools.injectRunButtonStyle()
 
-  let blocks = document.querySelectorAll('.listingblock')
+  let blocks = nodes ? window.__IntelliJTools.findAll(nodes, '.listingblock') : document.querySelectorAll('.listingblock')
   for (let i = 0; i < blocks.length; i++) {
     let block = blocks[i]
 
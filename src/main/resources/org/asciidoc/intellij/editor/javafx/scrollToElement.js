@@ -77,6 +77,14 @@ window.__IntelliJTools.scrollToLine = (function () {
       resultY += (newLineToScroll - startLine) / (endLine - startLine) * (endY - startY)
     }
 
+    scrollToOffset(resultY, newLineToScroll)
+  }
+
+  /**
+   * Scroll to the position of a line in the page.
+   * The IDE calls this directly once it received the table of source lines from lineIndex.js.
+   */
+  var scrollToOffset = function (resultY, newLineToScroll) {
     var height = window.innerHeight
     var relativeWindowPosition = 0.5;
     var oldValue = document.documentElement.scrollTop || document.body.scrollTop;
@@ -111,6 +119,8 @@ window.__IntelliJTools.scrollToLine = (function () {
 
   }
 
+  window.__IntelliJTools.scrollToOffset = scrollToOffset
+
   return scrollToLine
 })()
 
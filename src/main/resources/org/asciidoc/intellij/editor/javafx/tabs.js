@@ -1,11 +1,12 @@
-window.initTabs = function () { /*! Asciidoctor Tabs | Copyright (c) 2018-present Dan Allen | MIT License */
+window.initTabs = function (tabsBlocks) { /*! Asciidoctor Tabs | Copyright (c) 2018-present Dan Allen | MIT License */
   'use strict'
 
   // Adding fixed configuration here to make it work in the preview
   var config = { syncStorageKey: 'tabs', syncStorageScope: 'session' }
   var forEach = Array.prototype.forEach
 
-  init(document.querySelectorAll('.tabs'))
+  // when blocks are given, only initialize the blocks that have been inserted when patching the content
+  init(tabsBlocks || document.querySelectorAll('.tabs'))
 
   function init (tabsBlocks) {
     if (!tabsBlocks.length) return
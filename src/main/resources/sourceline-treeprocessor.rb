@@ -5,13 +5,23 @@ include ::Asciidoctor
 # inspired by AsciiDocFX
 # see: https://github.com/asciidocfx/AsciidocFX/blob/master/conf/public/js/asciidoctor-data-line.js
 class SourceLineTreeProcessor < Extensions::Treeprocessor
+  # worker processes run without the IDE's classes, they stop a conversion by abandoning its result instead
+  CANCELLABLE = java.lang.System.getProperty('asciidoc.worker').nil?
+
   def process document
 
     # docfile has been set to emulate non-embedded style
     docfile = document.attr('docfile')
 
+    count = 0
     document.find_by(traverse_documents: true).each do |node|
 
+      # stop early if the result is no longer needed, for example because the user continued typing
+      count += 1
+      if CANCELLABLE && count % 100 == 0
+        org.asciidoc.intellij.threading.AsciiDocRenderCancellation.checkCanceled
+      end
+
       # on each node add the source file information as role (will result in CSS class in HTML)
       if node.source_location
         if node.class.name != 'Asciidoctor::Document'
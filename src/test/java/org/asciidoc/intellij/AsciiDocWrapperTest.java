@@ -9,6 +9,7 @@ import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.settings.AsciiDocPreviewSettings;
 import org.asciidoc.intellij.ui.SplitFileEditor;
 import org.asciidoctor.SafeMode;
+import org.asciidoctor.log.LogRecord;
 import org.junit.Assert;
 
 import java.io.BufferedWriter;
@@ -19,6 +20,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -197,6 +199,25 @@ public class AsciiDocWrapperTest extends BasePlatformTestCase {
     assertThat(html).contains(expectedContent);
   }
 
+  public void testShouldKeepAttributesPerDocument() throws InterruptedException {
+    AsciiDocWrapper otherWrapper = new AsciiDocWrapper(getProject(), LocalFileSystem.getInstance().findFileByIoFile(new File(System.getProperty("java.io.tmpdir"))), null, "other");
+    Thread thread = new Thread(() -> otherWrapper.render(":myattr: other", Collections.emptyList()));
+    thread.start();
+    asciidocWrapper.render(":myattr: this", Collections.emptyList());
+    thread.join();
+    assertThat(asciidocWrapper.getAttributes().get("myattr")).isEqualTo("this");
+    assertThat(otherWrapper.getAttributes().get("myattr")).isEqualTo("other");
+  }
+
+  public void testShouldReuseCachedResultForLogRecords() {
+    String text = "include::missing.adoc[]";
+    List<LogRecord> logRecords = new ArrayList<>();
+    asciidocWrapper.render(text, "", Collections.emptyList(), (boasOut, boasErr, lr) -> logRecords.addAll(lr));
+    assertThat(logRecords).isNotEmpty();
+    // log records are compared by identity, therefore they will only match if they are taken from the cache
+    assertThat(asciidocWrapper.collectLogRecords(text, "", Collections.emptyList())).containsExactlyElementsOf(logRecords);
+  }
+
   public void testShouldRenderBlockdiagWithSubstUsingKroki() {
     AsciiDocApplicationSettings.getInstance().setAsciiDocPreviewSettings(new AsciiDocPreviewSettings(
       SplitFileEditor.SplitEditorLayout.SPLIT,
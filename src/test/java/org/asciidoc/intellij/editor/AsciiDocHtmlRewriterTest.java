@@ -0,0 +1,32 @@
+package org.asciidoc.intellij.editor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AsciiDocHtmlRewriterTest {
+
+  @Test
+  public void shouldRewriteUrlsOfImagesObjectsAndLinks() {
+    String html = "<a id=\"top\"></a><a class=\"xref\" href=\"other.adoc\">other</a><img src=\"image.png\" alt=\"image\">"
+      + "<object type=\"image/svg+xml\" data=\"diagram.svg\"></object>";
+    String result = AsciiDocHtmlRewriter.rewrite(html, (kind, url) -> kind + ":" + url, null, null);
+    assertEquals("<a id=\"top\"></a><a class=\"xref\" href=\"LINK:other.adoc\">other</a><img src=\"IMAGE:image.png\" alt=\"image\">"
+      + "<object type=\"image/svg+xml\" data=\"OBJECT:diagram.svg\"></object>", result);
+  }
+
+  @Test
+  public void shouldKeepUrlsTheRewriterDoesNotReplace() {
+    String html = "<img src=\"https://example.com/image.png\"><img src=\"image.png\">";
+    String result = AsciiDocHtmlRewriter.rewrite(html, (kind, url) -> url.contains(":") ? null : "new.png", null, null);
+    assertEquals("<img src=\"https://example.com/image.png\"><img src=\"new.png\">", result);
+  }
+
+  @Test
+  public void shouldAddContentToHeadAndBody() {
+    String html = "<html><head><title>t</title></head><body><p>text <img src=\"image.png\"></p></body></html>";
+    String result = AsciiDocHtmlRewriter.rewrite(html, AsciiDocHtmlRewriter.KEEP_URLS, "<meta>", "<script></script>");
+    assertEquals("<html><head><meta><title>t</title></head><body><p>text <img src=\"image.png\"></p><script></script></body></html>", result);
+  }
+
+}
@@ -0,0 +1,134 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.intellij.lang.annotations.Language;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsciiDocIncrementalRendererTest extends BasePlatformTestCase {
+
+  private AsciiDocWrapper asciidocWrapper;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    asciidocWrapper = new AsciiDocWrapper(getProject(), LocalFileSystem.getInstance().findFileByIoFile(new File(System.getProperty("java.io.tmpdir"))), null, "test");
+  }
+
+  public void testShouldRenderChangedSectionSameAsFullRender() {
+    AsciiDocIncrementalRenderer renderer = new AsciiDocIncrementalRenderer();
+    renderer.render(getProject(), asciidocWrapper, """
+      = Title
+      :attr: value
+
+      preamble
+
+      == First
+
+      first {attr}
+
+      :other: more
+
+      == Second
+
+      second {other}
+      """, "", Collections.emptyList());
+
+    @Language("asciidoc")
+    String changed = """
+      = Title
+      :attr: value
+
+      preamble
+
+      == First
+
+      first {attr}
+
+      :other: more
+
+      == Second
+
+      second {other} changed
+      """;
+    String incremental = renderer.render(getProject(), asciidocWrapper, changed, "", Collections.emptyList());
+
+    assertThat(incremental).contains("second more changed");
+    assertThat(incremental).isEqualTo(asciidocWrapper.render(changed, "", Collections.emptyList()));
+  }
+
+  public void testShouldSplitTopLevelSections() {
+    AsciiDocIncrementalRenderer.Split split = AsciiDocIncrementalRenderer.split(getProject(), """
+      = Title
+      :attr: value
+
+      preamble
+
+      == First
+
+      === Nested
+
+      == Second
+      """);
+    assertThat(split).isNotNull();
+    assertThat(split.chunks()).hasSize(2);
+    assertThat(split.chunks().get(1)).startsWith("= Title\n:attr: value\n\n\n\n\n\n\n\n== Second");
+  }
+
+  public void testShouldNotSplitDocumentWithFootnotes() {
+    AsciiDocIncrementalRenderer.Split split = AsciiDocIncrementalRenderer.split(getProject(), """
+      == First
+
+      text footnote:[note]
+
+      == Second
+      """);
+    assertThat(split).isNull();
+  }
+
+  public void testShouldNumberTitledTablesOfAllSections() {
+    AsciiDocIncrementalRenderer renderer = new AsciiDocIncrementalRenderer();
+    renderer.render(getProject(), asciidocWrapper, """
+      == First
+
+      .First table
+      |===
+      | a
+      |===
+
+      == Second
+
+      .Second table
+      |===
+      | b
+      |===
+      """, "", Collections.emptyList());
+
+    @Language("asciidoc")
+    String changed = """
+      == First
+
+      .First table
+      |===
+      | a
+      |===
+
+      == Second
+
+      .Second table
+      |===
+      | b changed
+      |===
+      """;
+    String incremental = renderer.render(getProject(), asciidocWrapper, changed, "", Collections.emptyList());
+
+    assertThat(incremental).contains("Table 2. Second table");
+    assertThat(incremental).isEqualTo(asciidocWrapper.render(changed, "", Collections.emptyList()));
+  }
+
+}
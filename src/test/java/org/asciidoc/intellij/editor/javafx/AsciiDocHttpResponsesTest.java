@@ -0,0 +1,51 @@
+package org.asciidoc.intellij.editor.javafx;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsciiDocHttpResponsesTest {
+
+  @Test
+  public void shouldMatchEtagInList() {
+    assertTrue(AsciiDocHttpResponses.matches("\"a\", \"b\"", "\"b\""));
+    assertTrue(AsciiDocHttpResponses.matches("W/\"b\"", "\"b\""));
+    assertTrue(AsciiDocHttpResponses.matches("*", "\"b\""));
+    assertFalse(AsciiDocHttpResponses.matches("\"a\"", "\"b\""));
+    assertFalse(AsciiDocHttpResponses.matches(null, "\"b\""));
+  }
+
+  @Test
+  public void shouldRespectRefusedGzip() {
+    assertTrue(AsciiDocHttpResponses.acceptsGzip("gzip, deflate, br"));
+    assertTrue(AsciiDocHttpResponses.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+    assertFalse(AsciiDocHttpResponses.acceptsGzip("gzip;q=0"));
+    assertFalse(AsciiDocHttpResponses.acceptsGzip("deflate"));
+    assertFalse(AsciiDocHttpResponses.acceptsGzip(null));
+  }
+
+  @Test
+  public void shouldCompressOnlyLargeTextContent() throws IOException {
+    byte[] data = "body { color: black; }\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+    AsciiDocHttpResponses.Body body = AsciiDocHttpResponses.Body.create(data, true);
+    assertNotNull(body.gzip());
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+      assertEquals(new String(data, StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertNull(AsciiDocHttpResponses.Body.create(data, false).gzip());
+    assertNull(AsciiDocHttpResponses.Body.create("small".getBytes(StandardCharsets.UTF_8), true).gzip());
+    assertEquals(body.etag(), AsciiDocHttpResponses.Body.create(data, false).etag());
+    assertNotEquals(body.etag(), AsciiDocHttpResponses.Body.create("other".getBytes(StandardCharsets.UTF_8), true).etag());
+  }
+
+}
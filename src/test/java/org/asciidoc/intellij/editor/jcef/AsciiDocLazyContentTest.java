@@ -0,0 +1,54 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsciiDocLazyContentTest {
+
+  private static final int SECTIONS = 20;
+
+  private static String section(int number) {
+    return "<div class=\"sect1 has-source-line data-line-stdin-" + (number * 100) + "\">"
+      + "<h2 id=\"_section_" + number + "\">Section " + number + "</h2>"
+      + "<div class=\"sectionbody\"><div class=\"paragraph\"><p>" + "text ".repeat(AsciiDocLazyContent.MIN_LENGTH / SECTIONS / 5) + "</p></div></div>"
+      + "</div>";
+  }
+
+  private static String content() {
+    StringBuilder sb = new StringBuilder("<div id=\"content\">\n<div id=\"preamble\"><div class=\"sectionbody\"></div></div>\n");
+    for (int i = 1; i <= SECTIONS; i++) {
+      sb.append(section(i)).append("\n");
+    }
+    return sb.append("</div>").toString();
+  }
+
+  @Test
+  public void shouldDeferSectionsFarAwayFromCurrentLine() {
+    String result = AsciiDocLazyContent.defer(content(), 1050);
+    // sections 8 to 12 around the current section 10 stay as they are
+    for (int i = 8; i <= 12; i++) {
+      assertTrue(result.contains("\n" + section(i) + "\n"));
+    }
+    assertTrue(result.contains("\n<div class=\"asciidoc-lazy has-source-line data-line-stdin-700\" style=\"min-height: "));
+    assertTrue(result.contains("px\"><template>" + section(7) + "</template></div>\n"));
+    assertTrue(result.contains("<template>" + section(13) + "</template>"));
+    assertFalse(result.contains("<template>" + section(12) + "</template>"));
+    assertTrue(result.startsWith("<div id=\"content\">\n<div id=\"preamble\">"));
+  }
+
+  @Test
+  public void shouldKeepContentWhenDivsAreNotBalanced() {
+    String content = content().replace(section(15), section(15) + "<div>");
+    assertEquals(content, AsciiDocLazyContent.defer(content, 1));
+  }
+
+  @Test
+  public void shouldKeepSmallContent() {
+    String content = "<div id=\"content\">" + section(1) + section(2) + "</div>";
+    assertEquals(content, AsciiDocLazyContent.defer(content, 1));
+  }
+
+}
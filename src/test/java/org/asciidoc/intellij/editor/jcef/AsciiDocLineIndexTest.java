@@ -0,0 +1,39 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AsciiDocLineIndexTest {
+
+  @Test
+  public void shouldInterpolateBetweenBlocks() {
+    AsciiDocLineIndex index = AsciiDocLineIndex.parse("1:0:50,11:100:50,21:300:50");
+    assertNotNull(index);
+    assertEquals(0, index.getOffset(0, 30), 0.001);
+    assertEquals(100, index.getOffset(11, 30), 0.001);
+    // between line 11 at 100 and line 20 (the line before the next block) at 300
+    assertEquals(100 + 4.0 / 9 * 200, index.getOffset(15, 30), 0.001);
+    // after the last block, interpolate to the end of the block
+    assertEquals(325, index.getOffset(26, 31), 0.001);
+  }
+
+  @Test
+  public void shouldPlaceLinesBeforeIncludeAtStartOfBlock() {
+    AsciiDocLineIndex index = AsciiDocLineIndex.parse("1:0:50,-1:0:0,-1:0:0,11:500:50");
+    assertNotNull(index);
+    assertEquals(0, index.getOffset(5, 20), 0.001);
+    assertEquals(500, index.getOffset(11, 20), 0.001);
+  }
+
+  @Test
+  public void shouldRejectMalformedTable() {
+    assertNull(AsciiDocLineIndex.parse("1:0"));
+    assertNull(AsciiDocLineIndex.parse("a:0:0"));
+    assertNull(AsciiDocLineIndex.parse("5:0:0,3:10:0"));
+    assertNotNull(AsciiDocLineIndex.parse(""));
+  }
+
+}
@@ -0,0 +1,68 @@
+package org.asciidoc.intellij.psi;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.intellij.lang.annotations.Language;
+
+import java.util.Collections;
+
+/**
+ * Tests for {@link AsciiDocDeclarationTracker}.
+ */
+@SuppressWarnings("AsciiDocAttributeShouldBeDefined")
+public class AsciiDocDeclarationTrackerTest extends BasePlatformTestCase {
+
+  public void testEditingParagraphKeepsCaches() {
+    AsciiDocDeclarationTracker tracker = configureAndFillCaches(":attr: value\n:other: value\n\n[#id]\nSome text<caret>.\n");
+    long modificationCount = tracker.getModificationCount();
+
+    type(" and more text");
+
+    assertEquals(modificationCount, tracker.getModificationCount());
+    assertNotNull(tracker.getAttributeCache().get("attr", false));
+    assertNotNull(tracker.getAttributeCache().get("other", false));
+    assertNotNull(tracker.getBlockidCache().get("id"));
+    assertNotNull(tracker.getBlockidCache().get("other"));
+  }
+
+  public void testEditingAttributeDeclarationInvalidatesOnlyItsName() {
+    AsciiDocDeclarationTracker tracker = configureAndFillCaches(":attr: val<caret>ue\n:other: value\n\n[#id]\nSome text.\n");
+    long modificationCount = tracker.getModificationCount();
+
+    type("x");
+
+    assertTrue(tracker.getModificationCount() > modificationCount);
+    assertNull(tracker.getAttributeCache().get("attr", false));
+    assertNotNull(tracker.getAttributeCache().get("other", false));
+  }
+
+  public void testEditingBlockIdInvalidatesOnlyItsName() {
+    AsciiDocDeclarationTracker tracker = configureAndFillCaches(":attr: value\n:other: value\n\n[#id<caret>]\nSome text.\n");
+    long modificationCount = tracker.getModificationCount();
+
+    type("x");
+
+    assertTrue(tracker.getModificationCount() > modificationCount);
+    assertNull(tracker.getBlockidCache().get("id"));
+    assertNotNull(tracker.getBlockidCache().get("other"));
+    assertNotNull(tracker.getAttributeCache().get("attr", false));
+    assertNotNull(tracker.getAttributeCache().get("other", false));
+  }
+
+  private AsciiDocDeclarationTracker configureAndFillCaches(@Language("asciidoc") String text) {
+    myFixture.configureByText(AsciiDocFileType.INSTANCE, text);
+    AsciiDocDeclarationTracker tracker = AsciiDocDeclarationTracker.getInstance(getProject());
+    tracker.getAttributeCache().put("attr", false, Collections.emptyList());
+    tracker.getAttributeCache().put("other", false, Collections.emptyList());
+    tracker.getBlockidCache().put("id", Collections.emptyList());
+    tracker.getBlockidCache().put("other", Collections.emptyList());
+    return tracker;
+  }
+
+  private void type(String text) {
+    myFixture.type(text);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+
+}
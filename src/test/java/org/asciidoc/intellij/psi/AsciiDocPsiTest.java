@@ -5,10 +5,12 @@ import com.intellij.grazie.text.TextContent;
 import com.intellij.grazie.text.TextExtractor;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
@@ -107,6 +109,25 @@ public class AsciiDocPsiTest extends BasePlatformTestCase {
     assertEquals(newElement.getName(), "newid{newattr}");
   }
 
+  public void testBlockIdWithMultipleAttributeReferences() {
+    @Language("asciidoc")
+    String text = ":prefix: chapter\n:name: intro\n\n[#sect-{prefix}-{name}]\n== Intro\n";
+    PsiFile psiFile = configureByAsciiDoc(text);
+    assertSize(1, AsciiDocUtil.findIds(getProject(), "sect-chapter-intro"));
+    assertEmpty(AsciiDocUtil.findIds(getProject(), "sect-chapter-other"));
+
+    // changing the value of an attribute updates the expanded block IDs
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(psiFile);
+    assertNotNull(document);
+    int offset = text.indexOf("intro");
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.replaceString(offset, offset + "intro".length(), "other");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+    assertEmpty(AsciiDocUtil.findIds(getProject(), "sect-chapter-intro"));
+    assertSize(1, AsciiDocUtil.findIds(getProject(), "sect-chapter-other"));
+  }
+
   public void testExampleBlock() {
     PsiFile psiFile = configureByAsciiDoc("====\nfoo\n====\n");
     PsiElement[] children = psiFile.getChildren();
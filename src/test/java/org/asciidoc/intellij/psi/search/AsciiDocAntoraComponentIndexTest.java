@@ -0,0 +1,48 @@
+package org.asciidoc.intellij.psi.search;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsciiDocAntoraComponentIndexTest {
+
+  @Test
+  public void shouldReadDescriptor() {
+    Map<String, Object> antora = new HashMap<>();
+    antora.put("name", "component");
+    antora.put("version", 2.0);
+    antora.put("prerelease", "-beta");
+    antora.put("title", "Component");
+    AsciiDocAntoraComponentIndex.Descriptor descriptor = AsciiDocAntoraComponentIndex.Descriptor.of(antora);
+    assertEquals("component", descriptor.name());
+    assertEquals("2.0", descriptor.version());
+    assertEquals("-beta", descriptor.prerelease());
+    assertEquals("Component", descriptor.title());
+    assertNull(descriptor.displayVersion());
+    assertFalse(descriptor.unversioned());
+    assertFalse(descriptor.generated());
+  }
+
+  @Test
+  public void shouldTreatMissingVersionAsEmpty() {
+    Map<String, Object> antora = new HashMap<>();
+    antora.put("name", "component");
+    assertEquals("", AsciiDocAntoraComponentIndex.Descriptor.of(antora).version());
+    antora.put("version", true);
+    assertTrue(AsciiDocAntoraComponentIndex.Descriptor.of(antora).unversioned());
+  }
+
+  @Test
+  public void shouldRecognizeCollector() {
+    Map<String, Object> antora = new HashMap<>();
+    antora.put("ext", Map.of("collector", Map.of("scan", Map.of("dir", "build"))));
+    assertTrue(AsciiDocAntoraComponentIndex.Descriptor.of(antora).generated());
+  }
+
+}
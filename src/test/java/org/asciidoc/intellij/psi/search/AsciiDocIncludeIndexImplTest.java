@@ -0,0 +1,76 @@
+package org.asciidoc.intellij.psi.search;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class AsciiDocIncludeIndexImplTest {
+
+  @Test
+  public void shouldKeepRelativeAndAbsoluteTargets() {
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      = Title
+
+      include::chapter.adoc[]
+      include::../common/header.adoc[leveloffset=+1]
+      include::/opt/docs/header.adoc[]
+      """);
+    assertEquals(Map.of("chapter.adoc", List.of("chapter.adoc"),
+      "header.adoc", List.of("../common/header.adoc", "/opt/docs/header.adoc")), includes);
+  }
+
+  @Test
+  public void shouldResolveAttributesDeclaredBefore() {
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      :partials: parts
+      include::{partials}/a.adoc[]
+      """);
+    assertEquals(Map.of("a.adoc", List.of("parts/a.adoc")), includes);
+  }
+
+  @Test
+  public void shouldKeepDocdirOfNestedInclude() {
+    // {docdir} is the folder of the main document, which differs from the folder of an included file in another folder
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      include::{docdir}/b.adoc[]
+      include::{docdir}/../common/c.adoc[]
+      """);
+    assertEquals(Map.of("b.adoc", List.of(AsciiDocIncludeIndex.DOCDIR + "/b.adoc"),
+      "c.adoc", List.of(AsciiDocIncludeIndex.DOCDIR + "/../common/c.adoc")), includes);
+  }
+
+  @Test
+  public void shouldUseDocdirDeclaredInFile() {
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      :docdir: /project/other
+      include::{docdir}/b.adoc[]
+      """);
+    assertEquals(Map.of("b.adoc", List.of("/project/other/b.adoc")), includes);
+  }
+
+  @Test
+  public void shouldMarkIncludesWithUnknownTargets() {
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      include::{unknown}/a.adoc[]
+      include::partial$b.adoc[]
+      """);
+    assertEquals(Map.of(AsciiDocIncludeIndex.UNRESOLVED, List.of()), includes);
+  }
+
+  @Test
+  public void shouldIgnoreCommentsAndRemoteIncludes() {
+    Map<String, List<String>> includes = AsciiDocIncludeIndexImpl.findIncludes("""
+      // include::comment.adoc[]
+      ////
+      include::block.adoc[]
+      ////
+      include::https://example.com/remote.adoc[]
+      \\include::escaped.adoc[]
+      """);
+    assertEquals(Map.of(), includes);
+  }
+
+}